@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.service.CoalescedLoads;
+import org.bremersee.security.authentication.ReactiveAccessTokenProvider;
+import reactor.core.publisher.Mono;
+
+/**
+ * The caching access token provider keeps the access token of the delegate until it expires.
+ * Within the refresh interval before the expiration, the cached token is returned and a new one
+ * is retrieved in the background. Concurrent retrievals are coalesced into one request.
+ *
+ * <p>The expiration is read from the {@code exp} claim of the token. A token without this claim
+ * is not cached.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class CachingAccessTokenProvider implements ReactiveAccessTokenProvider<String> {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /**
+   * A token is not used in the last seconds of its lifetime, so that it does not expire on its
+   * way to the server.
+   */
+  private static final long EXPIRATION_MARGIN_MILLIS = 5000L;
+
+  private final ReactiveAccessTokenProvider<String> delegate;
+
+  private final long refreshBeforeMillis;
+
+  private final AtomicReference<AccessToken> accessToken = new AtomicReference<>();
+
+  private final AtomicReference<Mono<AccessToken>> loading = new AtomicReference<>();
+
+  /**
+   * Instantiates a new caching access token provider.
+   *
+   * @param delegate the provider, that retrieves new access tokens
+   * @param refreshBefore the duration before the expiration, in which the token is refreshed
+   */
+  public CachingAccessTokenProvider(
+      ReactiveAccessTokenProvider<String> delegate,
+      Duration refreshBefore) {
+    this.delegate = delegate;
+    this.refreshBeforeMillis = refreshBefore.toMillis();
+  }
+
+  @Override
+  public Mono<String> getAccessToken() {
+    final AccessToken current = accessToken.get();
+    final long now = System.currentTimeMillis();
+    if (current == null || now >= current.expiresAt) {
+      return load().map(token -> token.value);
+    }
+    if (now >= current.expiresAt - refreshBeforeMillis) {
+      load().subscribe(
+          token -> log.debug("Access token refreshed."),
+          error -> log.warn("Refreshing access token failed.", error));
+    }
+    return Mono.just(current.value);
+  }
+
+  private Mono<AccessToken> load() {
+    return CoalescedLoads.coalesce(loading, () -> delegate.getAccessToken()
+        .map(value -> new AccessToken(value, getExpiresAt(value)))
+        .doOnNext(accessToken::set));
+  }
+
+  /**
+   * Gets the time in milliseconds, until the access token can be used.
+   *
+   * @param value the access token
+   * @return the time in milliseconds; zero, if the expiration is unknown
+   */
+  static long getExpiresAt(String value) {
+    final String[] parts = value != null ? value.split("\\.") : new String[0];
+    if (parts.length < 2) {
+      return 0L;
+    }
+    try {
+      final JsonNode claims = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+      final JsonNode exp = claims.get("exp");
+      return exp != null && exp.canConvertToLong()
+          ? exp.asLong() * 1000L - EXPIRATION_MARGIN_MILLIS
+          : 0L;
+    } catch (Exception e) {
+      log.debug("Reading expiration of access token failed.", e);
+      return 0L;
+    }
+  }
+
+  private static class AccessToken {
+
+    private final String value;
+
+    private final long expiresAt;
+
+    private AccessToken(String value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
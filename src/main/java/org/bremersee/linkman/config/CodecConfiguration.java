@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collections;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+/**
+ * The codec configuration.
+ *
+ * @author Christian Bremer
+ */
+@Configuration
+public class CodecConfiguration {
+
+  /**
+   * The newline delimited json media type value.
+   */
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  /**
+   * The newline delimited json media type.
+   */
+  public static final MediaType APPLICATION_NDJSON = MediaType.valueOf(APPLICATION_NDJSON_VALUE);
+
+  /**
+   * Creates a codec customizer, that registers a json encoder for newline delimited json. Every
+   * element of a flux is written as soon as it is emitted.
+   *
+   * @param objectMapper the object mapper
+   * @return the codec customizer
+   */
+  @Bean
+  public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+    return configurer -> {
+      final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, APPLICATION_NDJSON);
+      encoder.setStreamingMediaTypes(Collections.singletonList(APPLICATION_NDJSON));
+      configurer.customCodecs().register(encoder);
+    };
+  }
+
+}
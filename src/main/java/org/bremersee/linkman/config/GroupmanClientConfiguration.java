@@ -16,6 +16,7 @@
 
 package org.bremersee.linkman.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.exception.RestApiExceptionParser;
 import org.bremersee.groupman.api.GroupWebfluxControllerApi;
@@ -25,6 +26,7 @@ import org.bremersee.web.reactive.function.client.AccessTokenAppender;
 import org.bremersee.web.reactive.function.client.DefaultWebClientErrorDecoder;
 import org.bremersee.web.reactive.function.client.proxy.InvocationFunctions;
 import org.bremersee.web.reactive.function.client.proxy.WebClientProxyBuilder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
@@ -58,19 +60,21 @@ public class GroupmanClientConfiguration {
    * Group service group webflux controller api.
    *
    * @param parser the parser
+   * @param meterRegistry the meter registry
    * @return the group webflux controller api
    */
   @ConditionalOnProperty(name = "eureka.client.enabled", havingValue = "false")
   @Bean("groupService")
-  public GroupWebfluxControllerApi groupService(RestApiExceptionParser parser) {
+  public GroupWebfluxControllerApi groupService(
+      RestApiExceptionParser parser,
+      ObjectProvider<MeterRegistry> meterRegistry) {
 
     final String baseUri = properties.getGroupmanBaseUri();
     if (!StringUtils.hasText(baseUri) || "false".equalsIgnoreCase(baseUri.trim())) {
       return new GroupWebfluxControllerMock();
     }
 
-    final WebClient webClient = WebClient.builder()
-        .baseUrl(baseUri)
+    final WebClient webClient = webClientBuilder(baseUri, meterRegistry)
         .filter(new AccessTokenAppender(ReactiveAccessTokenProviders.fromAuthentication()))
         .build();
     return groupService(parser, webClient);
@@ -83,21 +87,35 @@ public class GroupmanClientConfiguration {
   @Bean("groupService")
   public GroupWebfluxControllerApi loadBalancedGroupService(
       RestApiExceptionParser parser,
-      ReactorLoadBalancerExchangeFilterFunction lbFunction) {
+      ReactorLoadBalancerExchangeFilterFunction lbFunction,
+      ObjectProvider<MeterRegistry> meterRegistry) {
 
     final String baseUri = properties.getGroupmanBaseUri();
     if (!StringUtils.hasText(baseUri) || "false".equalsIgnoreCase(baseUri.trim())) {
       return new GroupWebfluxControllerMock();
     }
 
-    final WebClient webClient = WebClient.builder()
-        .baseUrl(baseUri)
+    final WebClient webClient = webClientBuilder(baseUri, meterRegistry)
         .filter(new AccessTokenAppender(ReactiveAccessTokenProviders.fromAuthentication()))
         .filter(lbFunction)
         .build();
     return groupService(parser, webClient);
   }
 
+  private WebClient.Builder webClientBuilder(
+      String baseUri,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+
+    final WebClient.Builder webClientBuilder = WebClient.builder().baseUrl(baseUri);
+    final LinkmanProperties.Resilience resilience = properties.getGroupmanResilience();
+    if (resilience.isEnabled()) {
+      webClientBuilder
+          .clientConnector(ResilienceFilter.clientConnector("groupman", resilience))
+          .filter(new ResilienceFilter("groupman", resilience, meterRegistry));
+    }
+    return webClientBuilder;
+  }
+
   private GroupWebfluxControllerApi groupService(
       RestApiExceptionParser parser,
       WebClient webClient) {
@@ -16,6 +16,7 @@
 
 package org.bremersee.linkman.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.exception.RestApiExceptionParser;
 import org.bremersee.linkman.service.KeycloakClientApi;
@@ -68,12 +69,14 @@ public class KeycloakClientConfiguration {
    *
    * @param parser the rest api exception parser
    * @param tokenRetriever the token retriever
+   * @param meterRegistry the meter registry
    * @return the keycloak client api
    */
   @Bean
   public KeycloakClientApi keycloakClientApi(
       RestApiExceptionParser parser,
-      ObjectProvider<WebClientAccessTokenRetriever> tokenRetriever) {
+      ObjectProvider<WebClientAccessTokenRetriever> tokenRetriever,
+      ObjectProvider<MeterRegistry> meterRegistry) {
 
     final String baseUri = linkmanProperties.getKeycloakBaseUri();
     if (!StringUtils.hasText(baseUri) || "false".equalsIgnoreCase(baseUri.trim())) {
@@ -81,12 +84,20 @@ public class KeycloakClientConfiguration {
       return new KeycloakClientMock();
     }
     log.info("Using keycloak client with base uri {}", linkmanProperties.getKeycloakBaseUri());
-    final WebClient webClient = WebClient.builder()
-        .baseUrl(linkmanProperties.getKeycloakBaseUri())
-        .filter(new AccessTokenAppender(ReactiveAccessTokenProviders
-            .withAccessTokenRetriever(
+    final WebClient.Builder webClientBuilder = WebClient.builder()
+        .baseUrl(linkmanProperties.getKeycloakBaseUri());
+    final LinkmanProperties.Resilience resilience = linkmanProperties.getKeycloakResilience();
+    if (resilience.isEnabled()) {
+      webClientBuilder
+          .clientConnector(ResilienceFilter.clientConnector("keycloak", resilience))
+          .filter(new ResilienceFilter("keycloak", resilience, meterRegistry));
+    }
+    final WebClient webClient = webClientBuilder
+        .filter(new AccessTokenAppender(new CachingAccessTokenProvider(
+            ReactiveAccessTokenProviders.withAccessTokenRetriever(
                 tokenRetriever.getIfAvailable(WebClientAccessTokenRetriever::new),
-                AuthProperties.getClientCredentialsFlow())))
+                AuthProperties.getClientCredentialsFlow()),
+            linkmanProperties.getKeycloakTokenRefreshBefore())))
         .build();
     return WebClientProxyBuilder.defaultBuilder()
         .webClient(webClient)
@@ -26,6 +26,7 @@ import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import org.bremersee.common.model.TwoLetterLanguageCode;
@@ -51,12 +52,25 @@ public class LinkmanProperties {
   @NotNull
   private Duration presignedObjectUrlDuration = Duration.ofDays(1L);
 
+  private UrlCache presignedObjectUrlCache = new UrlCache();
+
+  private ImageUrlStrategy imageUrlStrategy = ImageUrlStrategy.PRESIGNED;
+
+  private String imageBaseUrl = "/api/images/";
+
   private String groupmanBaseUri;
 
   private String keycloakBaseUri;
 
   private String keycloakRealm = "master";
 
+  private int keycloakPageSize = 500;
+
+  private int keycloakPageConcurrency = 4;
+
+  @NotNull
+  private Duration keycloakTokenRefreshBefore = Duration.ofSeconds(30L);
+
   private Set<String> excludedRoles = new HashSet<>();
 
   private Set<String> excludedGroups = new HashSet<>();
@@ -65,6 +79,27 @@ public class LinkmanProperties {
 
   private Category publicCategory;
 
+  private Menu menu = new Menu();
+
+  @NotNull
+  private MembershipSource membershipSource = MembershipSource.GROUPMAN;
+
+  private String membershipClaimPath = "groups";
+
+  private boolean groupHierarchyEnabled = false;
+
+  private MembershipCache membershipCache = new MembershipCache();
+
+  private Catalog categoryCatalog = new Catalog();
+
+  private AclPrune aclPrune = new AclPrune();
+
+  private OptionCache keycloakCache = new OptionCache();
+
+  private Resilience keycloakResilience = new Resilience();
+
+  private Resilience groupmanResilience = new Resilience();
+
   /**
    * Instantiates new linkman properties.
    */
@@ -91,4 +126,233 @@ public class LinkmanProperties {
     private Map<String, String> translations = new LinkedHashMap<>();
   }
 
+  /**
+   * The menu properties.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class Menu {
+
+    private QueryStrategy queryStrategy = QueryStrategy.AGGREGATION;
+
+    private Cache cache = new Cache(10000L, Duration.ofHours(1L));
+
+    private Duration versionCheckInterval = Duration.ofSeconds(1L);
+
+    private int changeBufferSize = 16;
+
+    private Duration changeHeartbeatInterval = Duration.ofSeconds(30L);
+
+    private boolean guestMenuEnabled = true;
+  }
+
+  /**
+   * The cache properties.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  @NoArgsConstructor
+  public static class Cache {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 1000L;
+
+    private Duration timeToLive = Duration.ofHours(1L);
+
+    /**
+     * Instantiates new cache properties.
+     *
+     * @param maximumSize the maximum size
+     * @param timeToLive the time to live
+     */
+    public Cache(long maximumSize, Duration timeToLive) {
+      this.maximumSize = maximumSize;
+      this.timeToLive = timeToLive;
+    }
+  }
+
+  /**
+   * The group membership cache properties. An entry is fresh for the time to live. After that it
+   * is reloaded; if the reload takes longer than the stale timeout or fails, the stale entry is
+   * returned for at most the max stale duration.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class MembershipCache {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10000L;
+
+    private Duration timeToLive = Duration.ofMinutes(5L);
+
+    private Duration staleTimeout = Duration.ofMillis(300L);
+
+    private Duration maxStale = Duration.ofHours(1L);
+  }
+
+  /**
+   * The presigned object url cache properties. A signed url is reused until the reuse fraction
+   * of the presigned object url duration has elapsed.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class UrlCache {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10000L;
+
+    private double reuseFraction = 0.5;
+  }
+
+  /**
+   * The category catalog properties. The catalog is compared with the database in the
+   * consistency check interval, a zero interval disables the check. The maximum signatures are
+   * the maximum number of cached role and group combinations.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class Catalog {
+
+    private boolean enabled = true;
+
+    private Duration consistencyCheckInterval = Duration.ofMinutes(5L);
+
+    private long maximumSignatures = 1000L;
+  }
+
+  /**
+   * The prune properties of the access control lists. Roles and groups, that don't exist in the
+   * catalog of keycloak anymore, are removed from all categories in the given interval.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class AclPrune {
+
+    private boolean enabled = false;
+
+    private Duration interval = Duration.ofHours(1L);
+  }
+
+  /**
+   * The option cache properties of the roles and groups of keycloak. The options are refreshed
+   * in the background after the refresh interval and reloaded before they are returned after
+   * they have expired.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class OptionCache {
+
+    private boolean enabled = true;
+
+    private Duration refreshAfter = Duration.ofMinutes(5L);
+
+    private Duration expireAfter = Duration.ofHours(1L);
+  }
+
+  /**
+   * The resilience properties of a client. Every call must be answered within the timeout. More
+   * calls than the maximum concurrent calls are rejected. After the failure threshold of
+   * consecutive failures the circuit breaker opens and rejects all calls for the open duration;
+   * then one trial call decides whether it closes again.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @EqualsAndHashCode
+  public static class Resilience {
+
+    private boolean enabled = true;
+
+    private Duration timeout = Duration.ofSeconds(5L);
+
+    private int maxConnections = 50;
+
+    private int maxConcurrentCalls = 32;
+
+    private int failureThreshold = 5;
+
+    private Duration openDuration = Duration.ofSeconds(30L);
+  }
+
+  /**
+   * The strategy to load the categories and their links of the menu.
+   */
+  public enum QueryStrategy {
+
+    /**
+     * Loads the readable categories and then the links of each category (one query per
+     * category).
+     */
+    PER_CATEGORY,
+
+    /**
+     * Loads the readable categories together with their links in one aggregation.
+     */
+    AGGREGATION,
+
+    /**
+     * Loads the prepared menu projections of the requested language with one indexed query.
+     * Languages without projections are loaded with {@link #AGGREGATION}.
+     */
+    PROJECTION
+  }
+
+  /**
+   * The source of the group memberships of a user.
+   */
+  public enum MembershipSource {
+
+    /**
+     * The group memberships are loaded from the group service (and cached).
+     */
+    GROUPMAN,
+
+    /**
+     * The group memberships are read from the claim of the access token with the membership
+     * claim path (like {@code groups} or {@code realm_access.groups}).
+     */
+    JWT,
+
+    /**
+     * The group memberships of the access token and of the group service are merged.
+     */
+    BOTH
+  }
+
+  /**
+   * The strategy to create the image urls of the links.
+   */
+  public enum ImageUrlStrategy {
+
+    /**
+     * The image urls are presigned urls of the object store.
+     */
+    PRESIGNED,
+
+    /**
+     * The image urls point to the image endpoint of this service ({@code imageBaseUrl} plus
+     * object name). They never change, so browsers and proxies can cache the images. Like
+     * presigned urls they are public: image requests of browsers carry no access token, so
+     * anyone who knows the (random) url of an image can load it.
+     */
+    STABLE
+  }
+
 }
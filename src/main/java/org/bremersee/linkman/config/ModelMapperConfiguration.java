@@ -16,15 +16,12 @@
 
 package org.bremersee.linkman.config;
 
-import io.minio.http.Method;
 import java.util.LinkedHashSet;
-import java.util.Optional;
 import java.util.Set;
 import org.bremersee.converter.ModelMapperConfigurerAdapter;
-import org.bremersee.data.minio.MinioObjectId;
-import org.bremersee.data.minio.MinioRepository;
 import org.bremersee.linkman.model.LinkSpec;
 import org.bremersee.linkman.repository.LinkEntity;
+import org.bremersee.linkman.service.ImageUrlResolver;
 import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.Provider;
@@ -46,12 +43,9 @@ public class ModelMapperConfiguration {
 
     private final Converter<String, String> urlSignConverter;
 
-    public LinkSpecMapperConfiguration(MinioRepository minioRepository) {
-      this.urlSignConverter = mappingContext -> Optional
-          .ofNullable(mappingContext.getSource())
-          .map(MinioObjectId::from)
-          .map(id -> minioRepository.getPresignedObjectUrl(id, Method.GET))
-          .orElse(null);
+    public LinkSpecMapperConfiguration(ImageUrlResolver imageUrlResolver) {
+      this.urlSignConverter = mappingContext -> imageUrlResolver
+          .getUrl(mappingContext.getSource());
     }
 
     @Override
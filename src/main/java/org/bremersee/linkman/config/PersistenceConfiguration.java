@@ -1,13 +1,23 @@
 package org.bremersee.linkman.config;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.common.model.TwoLetterLanguageCode;
 import org.bremersee.data.convert.BaseCommonConversions;
 import org.bremersee.data.minio.MinioOperations;
 import org.bremersee.data.minio.MinioRepository;
 import org.bremersee.data.minio.MinioRepositoryImpl;
+import org.bremersee.linkman.repository.AclEntity;
+import org.bremersee.linkman.repository.CategoryEntity;
 import org.bremersee.linkman.repository.CategoryRepository;
+import org.bremersee.linkman.repository.CategoryVersionRepository;
+import org.bremersee.linkman.repository.LinkEntity;
 import org.bremersee.linkman.repository.LinkRepository;
+import org.bremersee.linkman.repository.MenuProjectionEntity;
+import org.bremersee.linkman.repository.MenuProjectionRepository;
+import org.bremersee.linkman.repository.SortKeys;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -15,9 +25,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The persistence configuration.
@@ -27,7 +45,9 @@ import org.springframework.util.Assert;
 @Configuration
 @EnableReactiveMongoRepositories(basePackageClasses = {
     CategoryRepository.class,
-    LinkRepository.class
+    CategoryVersionRepository.class,
+    LinkRepository.class,
+    MenuProjectionRepository.class
 })
 @EnableConfigurationProperties(LinkmanProperties.class)
 @Slf4j
@@ -37,25 +57,98 @@ public class PersistenceConfiguration {
 
   private final MinioOperations minioOperations;
 
+  private final ObjectProvider<ReactiveMongoTemplate> mongoTemplateProvider;
+
   /**
    * Instantiates a new persistence configuration.
    *
    * @param properties the properties
    * @param minioOperationsProvider the minio operations provider
+   * @param mongoTemplateProvider the mongo template provider
    */
   public PersistenceConfiguration(
       LinkmanProperties properties,
-      ObjectProvider<MinioOperations> minioOperationsProvider) {
+      ObjectProvider<MinioOperations> minioOperationsProvider,
+      ObjectProvider<ReactiveMongoTemplate> mongoTemplateProvider) {
     this.properties = properties;
     this.minioOperations = minioOperationsProvider.getIfAvailable();
     Assert.notNull(this.minioOperations, "Minio operations must not be null.");
+    this.mongoTemplateProvider = mongoTemplateProvider;
   }
 
   /**
-   * Init.
+   * Creates the access control list indexes and the sort key indexes of the available languages
+   * and adds the missing sort keys to existing categories and links.
    */
   @EventListener(ApplicationReadyEvent.class)
   public void init() {
+    final ReactiveMongoTemplate mongoTemplate = mongoTemplateProvider.getIfAvailable();
+    if (mongoTemplate == null) {
+      return;
+    }
+    Flux.just(CategoryEntity.class, MenuProjectionEntity.class)
+        .concatMap(entityClass -> Flux.fromIterable(AclEntity.INDEXED_PATHS)
+            .map(path -> "acl." + path)
+            .concatMap(field -> mongoTemplate.indexOps(entityClass)
+                .ensureIndex(new Index().on(field, Direction.ASC).named(field))))
+        .then()
+        .block();
+    if (properties.getAvailableLanguages().isEmpty()) {
+      return;
+    }
+    final Set<TwoLetterLanguageCode> languages = properties.getAvailableLanguages();
+    final Long size = Flux.fromIterable(languages)
+        .concatMap(language -> mongoTemplate.indexOps(CategoryEntity.class)
+            .ensureIndex(new Index()
+                .on("order", Direction.ASC)
+                .on(SortKeys.field(language), Direction.ASC)
+                .named("menu_order_" + SortKeys.key(language)))
+            .then(mongoTemplate.indexOps(LinkEntity.class)
+                .ensureIndex(new Index()
+                    .on("categoryIds", Direction.ASC)
+                    .on("order", Direction.ASC)
+                    .on(SortKeys.field(language), Direction.ASC)
+                    .named("menu_order_" + SortKeys.key(language)))))
+        .then(Flux.concat(
+            mongoTemplate.find(withoutSortKeys(languages), CategoryEntity.class)
+                .concatMap(mongoTemplate::save),
+            mongoTemplate.find(withoutSortKeys(languages), LinkEntity.class)
+                .concatMap(mongoTemplate::save))
+            .count())
+        .block();
+    log.info("Sort keys of {} categories and links added.", size);
+  }
+
+  private static Query withoutSortKeys(Collection<TwoLetterLanguageCode> languages) {
+    return Query.query(new Criteria().orOperator(languages.stream()
+        .map(language -> Criteria.where(SortKeys.field(language)).exists(false))
+        .toArray(Criteria[]::new)));
+  }
+
+  /**
+   * Updates the sort keys of a category before it is saved.
+   *
+   * @return the callback
+   */
+  @Bean
+  public ReactiveBeforeConvertCallback<CategoryEntity> categorySortKeysCallback() {
+    return (entity, collection) -> {
+      entity.updateSortKeys(properties.getAvailableLanguages());
+      return Mono.just(entity);
+    };
+  }
+
+  /**
+   * Updates the sort keys of a link before it is saved.
+   *
+   * @return the callback
+   */
+  @Bean
+  public ReactiveBeforeConvertCallback<LinkEntity> linkSortKeysCallback() {
+    return (entity, collection) -> {
+      entity.updateSortKeys(properties.getAvailableLanguages());
+      return Mono.just(entity);
+    };
   }
 
   /**
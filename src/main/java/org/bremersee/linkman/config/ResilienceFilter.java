@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The resilience filter protects the application from a slow or unavailable remote service. It
+ * limits every call by a timeout and the number of concurrent calls (bulkhead) and rejects all
+ * calls, while its circuit breaker is open. Server errors, other errors and timeouts are
+ * failures. The callers fall back to their last known good responses, for example the group
+ * membership cache or the select option cache.
+ *
+ * <p>The state of the circuit breaker (0 = closed, 1 = open, 2 = half open), the active calls,
+ * the latency of the calls by outcome and the rejected calls are recorded as metrics with the
+ * name of the client as tag.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class ResilienceFilter implements ExchangeFilterFunction {
+
+  /**
+   * The state of the circuit breaker.
+   */
+  enum State {
+
+    /**
+     * All calls are permitted.
+     */
+    CLOSED,
+
+    /**
+     * All calls are rejected.
+     */
+    OPEN,
+
+    /**
+     * One trial call is permitted.
+     */
+    HALF_OPEN
+  }
+
+  private final String name;
+
+  private final Duration timeout;
+
+  private final int maxConcurrentCalls;
+
+  private final int failureThreshold;
+
+  private final long openDurationNanos;
+
+  private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+  private final AtomicInteger failures = new AtomicInteger();
+
+  private final AtomicInteger activeCalls = new AtomicInteger();
+
+  private volatile long openedAt;
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Instantiates a new resilience filter.
+   *
+   * @param name the name of the client
+   * @param properties the resilience properties
+   * @param meterRegistry the meter registry
+   */
+  public ResilienceFilter(
+      String name,
+      LinkmanProperties.Resilience properties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.name = name;
+    this.timeout = properties.getTimeout();
+    this.maxConcurrentCalls = properties.getMaxConcurrentCalls();
+    this.failureThreshold = properties.getFailureThreshold();
+    this.openDurationNanos = properties.getOpenDuration().toNanos();
+    this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    Gauge.builder("linkman.client.circuit.state", state, ref -> ref.get().ordinal())
+        .tag("client", name)
+        .register(this.meterRegistry);
+    Gauge.builder("linkman.client.calls.active", activeCalls, AtomicInteger::get)
+        .tag("client", name)
+        .register(this.meterRegistry);
+    log.info("Resilience filter {} (timeout = {}, max concurrent calls = {}, "
+            + "failure threshold = {}, open duration = {})",
+        name, timeout, maxConcurrentCalls, failureThreshold, properties.getOpenDuration());
+  }
+
+  /**
+   * Creates a http connector with a bounded connection pool and the timeout as connect and read
+   * timeout.
+   *
+   * @param name the name of the client
+   * @param properties the resilience properties
+   * @return the http connector
+   */
+  public static ClientHttpConnector clientConnector(
+      String name,
+      LinkmanProperties.Resilience properties) {
+
+    final int timeoutMillis = (int) properties.getTimeout().toMillis();
+    final ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+        .maxConnections(properties.getMaxConnections())
+        .pendingAcquireTimeout(properties.getTimeout())
+        .build();
+    return new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+        .tcpConfiguration(tcpClient -> tcpClient
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMillis)
+            .doOnConnected(connection -> connection
+                .addHandlerLast(new ReadTimeoutHandler(timeoutMillis, TimeUnit.MILLISECONDS)))));
+  }
+
+  /**
+   * Gets the state of the circuit breaker.
+   *
+   * @return the state
+   */
+  State getState() {
+    return state.get();
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    return Mono.defer(() -> {
+      if (activeCalls.incrementAndGet() > maxConcurrentCalls) {
+        activeCalls.decrementAndGet();
+        return reject("bulkhead", "Too many concurrent calls.");
+      }
+      if (!acquirePermission()) {
+        activeCalls.decrementAndGet();
+        return reject("circuit_open", "Circuit breaker is open.");
+      }
+      final long start = System.nanoTime();
+      return next.exchange(request)
+          .timeout(timeout)
+          .doOnSuccess(response -> {
+            if (response != null && response.statusCode().is5xxServerError()) {
+              onFailure("failure", start);
+            } else {
+              onSuccess(start);
+            }
+          })
+          .doOnError(error -> onFailure(
+              error instanceof TimeoutException ? "timeout" : "failure",
+              start))
+          .doOnCancel(this::onCancel)
+          .doFinally(signalType -> activeCalls.decrementAndGet());
+    });
+  }
+
+  private boolean acquirePermission() {
+    final State current = state.get();
+    if (current == State.CLOSED) {
+      return true;
+    }
+    // After the open duration exactly one trial call is permitted.
+    return current == State.OPEN
+        && System.nanoTime() - openedAt >= openDurationNanos
+        && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+  }
+
+  private void onSuccess(long start) {
+    record("success", start);
+    failures.set(0);
+    if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+      log.info("Circuit breaker of {} is closed.", name);
+    }
+  }
+
+  private void onFailure(String outcome, long start) {
+    record(outcome, start);
+    if (state.get() == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+      open();
+    }
+  }
+
+  private void onCancel() {
+    // A cancelled trial call decides nothing, the next call may try again.
+    if (state.get() == State.HALF_OPEN) {
+      openedAt = System.nanoTime() - openDurationNanos;
+      state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+  }
+
+  private void open() {
+    openedAt = System.nanoTime();
+    if (state.getAndSet(State.OPEN) != State.OPEN) {
+      log.warn("Circuit breaker of {} is open.", name);
+    }
+    failures.set(0);
+  }
+
+  private void record(String outcome, long start) {
+    Timer.builder("linkman.client.calls")
+        .tag("client", name)
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private <T> Mono<T> reject(String reason, String message) {
+    Counter.builder("linkman.client.calls.rejected")
+        .tag("client", name)
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+    return Mono.error(new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        message + " [client = " + name + "]"));
+  }
+
+}
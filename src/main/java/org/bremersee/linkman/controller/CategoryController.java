@@ -16,6 +16,8 @@
 
 package org.bremersee.linkman.controller;
 
+import static org.bremersee.linkman.config.CodecConfiguration.APPLICATION_NDJSON_VALUE;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -24,10 +26,16 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Collections;
 import javax.validation.Valid;
+import org.bremersee.exception.ServiceException;
 import org.bremersee.linkman.model.CategorySpec;
+import org.bremersee.linkman.repository.AclReferenceType;
 import org.bremersee.linkman.service.CategoryService;
+import org.bremersee.linkman.service.ContentETags;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -35,6 +43,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -51,13 +60,19 @@ public class CategoryController {
 
   private final CategoryService categoryService;
 
+  private final ContentETags contentETags;
+
   /**
    * Instantiates a new category controller.
    *
    * @param categoryService the category service
+   * @param contentETags the content entity tags
    */
-  public CategoryController(CategoryService categoryService) {
+  public CategoryController(
+      CategoryService categoryService,
+      ContentETags contentETags) {
     this.categoryService = categoryService;
+    this.contentETags = contentETags;
   }
 
   /**
@@ -76,13 +91,22 @@ public class CategoryController {
           content = @Content(
               array = @ArraySchema(
                   schema = @Schema(implementation = CategorySpec.class)))),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified"),
       @ApiResponse(
           responseCode = "403",
           description = "Forbidden")
   })
-  @GetMapping(path = "/api/categories", produces = MediaType.APPLICATION_JSON_VALUE)
-  public Flux<CategorySpec> getCategories() {
-    return categoryService.getCategories();
+  @GetMapping(path = "/api/categories", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      APPLICATION_NDJSON_VALUE,
+      MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Mono<ResponseEntity<Flux<CategorySpec>>> getCategories() {
+    return contentETags.refresh().map(version -> ResponseEntity.ok()
+        .eTag(contentETags.getCategoriesETag())
+        .cacheControl(CacheControl.noCache().cachePrivate())
+        .body(categoryService.getCategories()));
   }
 
   /**
@@ -244,4 +268,94 @@ public class CategoryController {
     return categoryService.publicCategoryExists();
   }
 
+  /**
+   * Renames a role or group in the access control lists of all categories.
+   *
+   * @param type the reference type ({@code roles} or {@code groups})
+   * @param name the name
+   * @param newName the new name
+   * @return the number of changed categories
+   */
+  @Operation(
+      summary = "Rename a role or group in the access control lists of all categories.",
+      operationId = "renameAclReference",
+      tags = {"category-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The number of changed categories."),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Bad Request",
+          content = @Content(
+              schema = @Schema(
+                  implementation = org.bremersee.exception.model.RestApiException.class))),
+      @ApiResponse(
+          responseCode = "403",
+          description = "Forbidden")
+  })
+  @PutMapping(
+      path = "/api/categories/f/acl/{type}/{name}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<Long> renameAclReference(
+      @Parameter(description = "The reference type (roles or groups).", required = true)
+      @PathVariable("type") String type,
+      @Parameter(description = "The name.", required = true) @PathVariable("name") String name,
+      @Parameter(description = "The new name.", required = true)
+      @RequestParam(name = "newName") String newName) {
+
+    return toReferenceType(type)
+        .flatMap(referenceType -> categoryService
+            .renameAclReference(referenceType, name, newName));
+  }
+
+  /**
+   * Removes a role or group from the access control lists of all categories.
+   *
+   * @param type the reference type ({@code roles} or {@code groups})
+   * @param name the name
+   * @return the number of changed categories
+   */
+  @Operation(
+      summary = "Remove a role or group from the access control lists of all categories.",
+      operationId = "removeAclReference",
+      tags = {"category-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The number of changed categories."),
+      @ApiResponse(
+          responseCode = "400",
+          description = "Bad Request",
+          content = @Content(
+              schema = @Schema(
+                  implementation = org.bremersee.exception.model.RestApiException.class))),
+      @ApiResponse(
+          responseCode = "403",
+          description = "Forbidden")
+  })
+  @DeleteMapping(
+      path = "/api/categories/f/acl/{type}/{name}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<Long> removeAclReference(
+      @Parameter(description = "The reference type (roles or groups).", required = true)
+      @PathVariable("type") String type,
+      @Parameter(description = "The name.", required = true) @PathVariable("name") String name) {
+
+    return toReferenceType(type)
+        .flatMap(referenceType -> categoryService
+            .removeAclReferences(referenceType, Collections.singleton(name)));
+  }
+
+  private static Mono<AclReferenceType> toReferenceType(String type) {
+    for (AclReferenceType referenceType : AclReferenceType.values()) {
+      if (referenceType.name().equalsIgnoreCase(type)) {
+        return Mono.just(referenceType);
+      }
+    }
+    return Mono.error(ServiceException.badRequest(
+        "The reference type must be 'roles' or 'groups'.",
+        "INVALID_REFERENCE_TYPE"));
+  }
+
 }
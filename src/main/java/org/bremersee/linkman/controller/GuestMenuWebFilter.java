@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.controller;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.service.GuestMenu;
+import org.bremersee.linkman.service.GuestMenu.RenderedMenu;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * The guest menu web filter answers json menu requests of anonymous users with the rendered
+ * {@link GuestMenu}, so that neither the database nor the group service is called. All other
+ * requests are passed to the {@link MenuController}.
+ *
+ * @author Christian Bremer
+ */
+@Component
+public class GuestMenuWebFilter implements WebFilter {
+
+  private static final String MENU_PATH = "/api/menu";
+
+  private final GuestMenu guestMenu;
+
+  /**
+   * Instantiates a new guest menu web filter.
+   *
+   * @param guestMenu the guest menu
+   */
+  public GuestMenuWebFilter(GuestMenu guestMenu) {
+    this.guestMenu = guestMenu;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    final ServerHttpRequest request = exchange.getRequest();
+    if (request.getMethod() != HttpMethod.GET
+        || !MENU_PATH.equals(request.getPath().pathWithinApplication().value())
+        || request.getQueryParams().containsKey("since")
+        || !acceptsJson(request.getHeaders())) {
+      return chain.filter(exchange);
+    }
+    return isGuest()
+        .flatMap(guest -> guest
+            ? guestMenu.getCurrent(getLanguage(exchange))
+            : Mono.just(Optional.<RenderedMenu>empty()))
+        .flatMap(menu -> menu.isPresent()
+            ? write(exchange, menu.get())
+            : chain.filter(exchange));
+  }
+
+  private static boolean acceptsJson(HttpHeaders headers) {
+    final List<MediaType> accept = headers.getAccept();
+    if (accept.isEmpty()) {
+      return true;
+    }
+    MediaType.sortBySpecificityAndQuality(accept);
+    return accept.get(0).includes(MediaType.APPLICATION_JSON);
+  }
+
+  private static Mono<Boolean> isGuest() {
+    return ReactiveSecurityContextHolder.getContext()
+        .map(SecurityContext::getAuthentication)
+        .map(authentication -> authentication instanceof AnonymousAuthenticationToken
+            || !authentication.isAuthenticated())
+        .defaultIfEmpty(true);
+  }
+
+  private static TwoLetterLanguageCode getLanguage(ServerWebExchange exchange) {
+    final Locale locale = exchange.getLocaleContext().getLocale();
+    return TwoLetterLanguageCode.fromLocale(locale != null ? locale : Locale.getDefault(), null);
+  }
+
+  private static Mono<Void> write(ServerWebExchange exchange, RenderedMenu menu) {
+    final ServerHttpResponse response = exchange.getResponse();
+    final HttpHeaders headers = response.getHeaders();
+    headers.setETag(menu.getEtag());
+    headers.setCacheControl(CacheControl.noCache());
+    headers.setVary(List.of(
+        HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_ENCODING,
+        HttpHeaders.ACCEPT_LANGUAGE,
+        HttpHeaders.AUTHORIZATION));
+    if (exchange.getRequest().getHeaders().getIfNoneMatch().contains(menu.getEtag())) {
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      return response.setComplete();
+    }
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    final byte[] body;
+    if (acceptsGzip(exchange.getRequest().getHeaders())) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+      body = menu.getGzippedJson();
+    } else {
+      body = menu.getJson();
+    }
+    headers.setContentLength(body.length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+  }
+
+  private static boolean acceptsGzip(HttpHeaders headers) {
+    return headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+        .flatMap(value -> List.of(value.split(",")).stream())
+        .map(value -> value.trim().toLowerCase(Locale.ENGLISH))
+        .anyMatch(value -> value.equals("gzip") || value.startsWith("gzip;"));
+  }
+
+}
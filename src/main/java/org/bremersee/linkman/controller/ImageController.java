@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.controller;
+
+import io.minio.ObjectStat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.bremersee.linkman.service.ImageService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The image controller streams the card and menu images from the object store. An image name is
+ * unique for every upload, so the content of an image never changes and can be cached forever.
+ *
+ * <p>The images are public by design and are not checked against the access control list of
+ * the link's category: browsers load them with plain {@code img} requests, that carry no access
+ * token. Like a presigned url an image name contains a random part and can't be guessed, it is
+ * only known to the users who can read the link. Only images, that are referenced by a link,
+ * are served, other objects of the bucket are not found.
+ *
+ * @author Christian Bremer
+ */
+@Tag(name = "image-controller", description = "The image API.")
+@RestController
+@Validated
+public class ImageController {
+
+  private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+  private final ImageService imageService;
+
+  /**
+   * Instantiates a new image controller.
+   *
+   * @param imageService the image service
+   */
+  public ImageController(ImageService imageService) {
+    this.imageService = imageService;
+  }
+
+  /**
+   * Gets an image. A single byte range is supported.
+   *
+   * @param objectName the object name of the image
+   * @param headers the request headers
+   * @return the image
+   */
+  @Operation(
+      summary = "Get an image.",
+      operationId = "getImage",
+      tags = {"image-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The image."),
+      @ApiResponse(
+          responseCode = "206",
+          description = "The requested range of the image."),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified"),
+      @ApiResponse(
+          responseCode = "404",
+          description = "Not Found"),
+      @ApiResponse(
+          responseCode = "416",
+          description = "Range Not Satisfiable")
+  })
+  @GetMapping(path = "/api/images/{objectName}")
+  public Mono<ResponseEntity<Flux<DataBuffer>>> getImage(
+      @Parameter(description = "The object name of the image.", required = true)
+      @PathVariable("objectName") String objectName,
+      @Parameter(hidden = true) @RequestHeader HttpHeaders headers) {
+
+    return imageService.getImageStat(objectName)
+        .map(stat -> {
+          final HttpRange range = getRange(headers, stat);
+          if (range == null) {
+            return ResponseEntity.ok()
+                .headers(createHeaders(stat))
+                .contentLength(stat.length())
+                .body(imageService.getImage(objectName, null, null));
+          }
+          final long length = stat.length();
+          final long start;
+          final long end;
+          try {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+          } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .<Flux<DataBuffer>>build();
+          }
+          return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+              .headers(createHeaders(stat))
+              .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length)
+              .contentLength(end - start + 1)
+              .body(imageService.getImage(objectName, start, end - start + 1));
+        });
+  }
+
+  private static HttpHeaders createHeaders(ObjectStat stat) {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setETag(quote(stat.etag()));
+    headers.set(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+    headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+    headers.setContentType(StringUtils.hasText(stat.contentType())
+        ? MediaType.parseMediaType(stat.contentType())
+        : MediaType.APPLICATION_OCTET_STREAM);
+    return headers;
+  }
+
+  private static HttpRange getRange(HttpHeaders headers, ObjectStat stat) {
+    final String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(quote(stat.etag()))) {
+      return null;
+    }
+    try {
+      final List<HttpRange> ranges = headers.getRange();
+      // Multiple ranges are not supported, the whole image is returned instead.
+      return ranges.size() == 1 ? ranges.get(0) : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String quote(String etag) {
+    return etag.startsWith("\"") ? etag : "\"" + etag + "\"";
+  }
+
+}
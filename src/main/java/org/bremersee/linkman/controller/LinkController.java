@@ -16,6 +16,7 @@
 
 package org.bremersee.linkman.controller;
 
+import static org.bremersee.linkman.config.CodecConfiguration.APPLICATION_NDJSON_VALUE;
 import static org.bremersee.linkman.model.LinkSpec.CARD_IMAGE_NAME;
 import static org.bremersee.linkman.model.LinkSpec.MENU_IMAGE_NAME;
 import static org.bremersee.web.reactive.multipart.MultipartFileBuilder.getMultipartFile;
@@ -33,9 +34,12 @@ import java.util.List;
 import javax.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.linkman.model.LinkSpec;
+import org.bremersee.linkman.service.ContentETags;
 import org.bremersee.linkman.service.LinkService;
 import org.bremersee.web.reactive.multipart.MultipartFileBuilder;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.Part;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -63,18 +67,23 @@ public class LinkController {
 
   private final LinkService linkService;
 
+  private final ContentETags contentETags;
+
   private final MultipartFileBuilder multipartFileBuilder;
 
   /**
    * Instantiates a new link controller.
    *
    * @param linkService the link service
+   * @param contentETags the content entity tags
    * @param multipartFileBuilder the multipart file builder
    */
   public LinkController(
       LinkService linkService,
+      ContentETags contentETags,
       MultipartFileBuilder multipartFileBuilder) {
     this.linkService = linkService;
+    this.contentETags = contentETags;
     this.multipartFileBuilder = multipartFileBuilder;
   }
 
@@ -95,15 +104,24 @@ public class LinkController {
           content = @Content(
               array = @ArraySchema(
                   schema = @Schema(implementation = LinkSpec.class)))),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified"),
       @ApiResponse(
           responseCode = "403",
           description = "Forbidden")
   })
-  @GetMapping(path = "/api/links", produces = MediaType.APPLICATION_JSON_VALUE)
-  public Flux<LinkSpec> getLinks(
+  @GetMapping(path = "/api/links", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      APPLICATION_NDJSON_VALUE,
+      MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Mono<ResponseEntity<Flux<LinkSpec>>> getLinks(
       @Parameter(name = "categoryId", description = "The category ID.")
       @RequestParam(name = "categoryId", required = false) String categoryId) {
-    return linkService.getLinks(categoryId);
+    return contentETags.refresh().map(version -> ResponseEntity.ok()
+        .eTag(contentETags.getLinksETag(categoryId))
+        .cacheControl(CacheControl.noCache().cachePrivate())
+        .body(linkService.getLinks(categoryId)));
   }
 
   /**
@@ -16,8 +16,10 @@
 
 package org.bremersee.linkman.controller;
 
+import static org.bremersee.linkman.config.CodecConfiguration.APPLICATION_NDJSON_VALUE;
 import static org.bremersee.security.core.ReactiveUserContextCaller.EMPTY_USER_CONTEXT_SUPPLIER;
 import static org.bremersee.security.core.ReactiveUserContextCaller.manyWithUserContext;
+import static org.bremersee.security.core.ReactiveUserContextCaller.oneWithUserContext;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -27,17 +29,29 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import java.util.Locale;
-import org.bremersee.groupman.api.GroupWebfluxControllerApi;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.Link;
+import org.bremersee.linkman.model.MenuCategory;
+import org.bremersee.linkman.model.MenuChange;
+import org.bremersee.linkman.model.MenuDelta;
 import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.linkman.service.ContentETags;
+import org.bremersee.linkman.service.GroupMembershipResolver;
+import org.bremersee.linkman.service.MenuChangeNotifier;
 import org.bremersee.linkman.service.MenuService;
-import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
-import org.springframework.util.Assert;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The menu controller.
@@ -51,24 +65,44 @@ public class MenuController {
 
   private final MenuService menuService;
 
-  private final GroupWebfluxControllerApi groupService;
+  private final ContentETags contentETags;
+
+  private final GroupMembershipResolver groupMembershipResolver;
+
+  private final MenuChangeNotifier menuChangeNotifier;
+
+  private final Flux<ServerSentEvent<MenuChange>> heartbeat;
 
   /**
    * Instantiates a new menu controller.
    *
    * @param menuService the menu service
-   * @param groupServiceProvider the group service
+   * @param contentETags the content entity tags
+   * @param groupMembershipResolver the group membership resolver
+   * @param menuChangeNotifier the menu change notifier
+   * @param properties the properties
    */
   public MenuController(
       MenuService menuService,
-      ObjectProvider<GroupWebfluxControllerApi> groupServiceProvider) {
+      ContentETags contentETags,
+      GroupMembershipResolver groupMembershipResolver,
+      MenuChangeNotifier menuChangeNotifier,
+      LinkmanProperties properties) {
     this.menuService = menuService;
-    this.groupService = groupServiceProvider.getIfAvailable();
-    Assert.notNull(this.groupService, "Group service must be present.");
+    this.contentETags = contentETags;
+    this.groupMembershipResolver = groupMembershipResolver;
+    this.menuChangeNotifier = menuChangeNotifier;
+    // One timer for all subscribers.
+    this.heartbeat = Flux.interval(properties.getMenu().getChangeHeartbeatInterval())
+        .onBackpressureDrop()
+        .map(tick -> ServerSentEvent.<MenuChange>builder().comment("heartbeat").build())
+        .share();
   }
 
   /**
-   * Get menu entries.
+   * Get menu entries. The response has an entity tag, so that an unchanged menu is answered with
+   * {@code 304 Not Modified} without loading it. With {@code application/x-ndjson} or
+   * {@code text/event-stream} every menu entry is written as soon as it is loaded.
    *
    * @param language the language
    * @return the menu entries
@@ -82,16 +116,186 @@ public class MenuController {
           responseCode = "200",
           description = "The menu entries.",
           content = @Content(
-              array = @ArraySchema(schema = @Schema(implementation = MenuEntry.class))))
+              array = @ArraySchema(schema = @Schema(implementation = MenuEntry.class)))),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified")
+  })
+  @GetMapping(path = "/api/menu", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      APPLICATION_NDJSON_VALUE,
+      MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Mono<ResponseEntity<Flux<MenuEntry>>> getMenuEntries(
+      @Parameter(hidden = true) final Locale language) {
+
+    return contentETags.refresh().then(oneWithUserContext(
+        userContext -> Mono.just(ResponseEntity.ok()
+            .eTag(contentETags.getMenuEntriesETag(userContext, language))
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(menuService.getMenuEntries(userContext, language))),
+        groupMembershipResolver::getMembershipIds,
+        EMPTY_USER_CONTEXT_SUPPLIER));
+  }
+
+  /**
+   * Get the categories of the menu without their links. The links of a category can be loaded
+   * with {@link #getMenuLinks(String, Locale)}, when the category is expanded.
+   *
+   * @param language the language
+   * @return the menu categories
+   */
+  @Operation(
+      summary = "Get the categories of the menu without their links.",
+      operationId = "getMenuCategories",
+      tags = {"menu-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The menu categories.",
+          content = @Content(
+              array = @ArraySchema(schema = @Schema(implementation = MenuCategory.class)))),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified")
   })
-  @GetMapping(path = "/api/menu", produces = MediaType.APPLICATION_JSON_VALUE)
-  public Flux<MenuEntry> getMenuEntries(
+  @GetMapping(path = "/api/menu/categories", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      APPLICATION_NDJSON_VALUE,
+      MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Mono<ResponseEntity<Flux<MenuCategory>>> getMenuCategories(
       @Parameter(hidden = true) final Locale language) {
 
-    return manyWithUserContext(
-        userContext -> menuService.getMenuEntries(userContext, language),
-        groupService::getMembershipIds,
+    return contentETags.refresh().then(oneWithUserContext(
+        userContext -> Mono.just(ResponseEntity.ok()
+            .eTag(contentETags.getMenuCategoriesETag(userContext, language))
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(menuService.getMenuCategories(userContext, language))),
+        groupMembershipResolver::getMembershipIds,
+        EMPTY_USER_CONTEXT_SUPPLIER));
+  }
+
+  /**
+   * Get the links of a category of the menu.
+   *
+   * @param categoryId the category id
+   * @param language the language
+   * @return the links
+   */
+  @Operation(
+      summary = "Get the links of a category of the menu.",
+      operationId = "getMenuLinks",
+      tags = {"menu-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The links of the category.",
+          content = @Content(
+              array = @ArraySchema(schema = @Schema(implementation = Link.class)))),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified"),
+      @ApiResponse(
+          responseCode = "404",
+          description = "Not Found",
+          content = @Content(
+              schema = @Schema(
+                  implementation = org.bremersee.exception.model.RestApiException.class)))
+  })
+  @GetMapping(path = "/api/menu/categories/{id}/links", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      APPLICATION_NDJSON_VALUE,
+      MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Mono<ResponseEntity<Flux<Link>>> getMenuLinks(
+      @Parameter(description = "The category id.", required = true)
+      @PathVariable("id") String categoryId,
+      @Parameter(hidden = true) final Locale language) {
+
+    return contentETags.refresh().then(oneWithUserContext(
+        userContext -> Mono.just(ResponseEntity.ok()
+            .eTag(contentETags.getMenuLinksETag(userContext, language, categoryId))
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(menuService.getMenuLinks(userContext, language, categoryId))),
+        groupMembershipResolver::getMembershipIds,
+        EMPTY_USER_CONTEXT_SUPPLIER));
+  }
+
+  /**
+   * Get the menu delta. It contains only the menu entries of the categories, that were changed
+   * after the given version, so that a client, that already has the menu, needn't load it
+   * completely again. The version is the version of the last delta or the highest version of the
+   * menu entries.
+   *
+   * <p>If the client sends the ids of the categories it has, categories, that became readable or
+   * unreadable by a change of the user's roles or groups, are added or removed, too.
+   *
+   * @param since the version of the menu, the client already has
+   * @param knownCategoryIds the ids of the categories, the client already has
+   * @param language the language
+   * @return the menu delta
+   */
+  @Operation(
+      summary = "Get the changes of the menu since the given version.",
+      operationId = "getMenuDelta",
+      tags = {"menu-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The menu delta.",
+          content = @Content(
+              schema = @Schema(implementation = MenuDelta.class))),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Not Modified")
+  })
+  @GetMapping(path = "/api/menu", params = "since", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<MenuDelta>> getMenuDelta(
+      @Parameter(description = "The version of the menu, the client already has.", required = true)
+      @RequestParam(name = "since") long since,
+      @Parameter(description = "The ids of the categories, the client already has.")
+      @RequestParam(name = "categoryIds", required = false) List<String> knownCategoryIds,
+      @Parameter(hidden = true) final Locale language) {
+
+    return oneWithUserContext(
+        userContext -> menuService.getMenuDelta(userContext, language, since, knownCategoryIds)
+            .map(delta -> ResponseEntity.ok()
+                .eTag(contentETags.getMenuDeltaETag(
+                    userContext, language, since, knownCategoryIds))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(delta)),
+        groupMembershipResolver::getMembershipIds,
         EMPTY_USER_CONTEXT_SUPPLIER);
   }
 
+  /**
+   * Get menu changes. An event is sent, whenever categories or links are changed, so that a
+   * client can reload the menu instead of polling it. An event only contains the ids of the
+   * changed categories, that the user can read; guests get the events without any ids.
+   *
+   * @return the menu changes
+   */
+  @Operation(
+      summary = "Get menu changes as server sent events.",
+      operationId = "getMenuChanges",
+      tags = {"menu-controller"})
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "The menu changes.",
+          content = @Content(
+              schema = @Schema(implementation = MenuChange.class)))
+  })
+  @GetMapping(path = "/api/menu/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<MenuChange>> getMenuChanges() {
+    return Flux.merge(
+        manyWithUserContext(
+            userContext -> menuChangeNotifier.getMenuChanges(userContext)
+                .map(change -> ServerSentEvent.builder(change)
+                    .id(String.valueOf(change.getVersion()))
+                    .event("menu-changed")
+                    .build()),
+            groupMembershipResolver::getMembershipIds,
+            EMPTY_USER_CONTEXT_SUPPLIER),
+        heartbeat.onBackpressureDrop());
+  }
+
 }
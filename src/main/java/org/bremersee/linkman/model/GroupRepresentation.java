@@ -17,6 +17,8 @@
 package org.bremersee.linkman.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -41,15 +43,29 @@ public class GroupRepresentation {
 
   private String name;
 
+  private String path;
+
+  private List<GroupRepresentation> subGroups = new ArrayList<>();
+
   /**
    * Instantiates a new group representation.
    *
    * @param id the id
    * @param name the name
+   * @param path the path
+   * @param subGroups the sub groups
    */
   @Builder(toBuilder = true)
-  public GroupRepresentation(String id, String name) {
+  public GroupRepresentation(
+      String id,
+      String name,
+      String path,
+      List<GroupRepresentation> subGroups) {
     this.id = id;
     this.name = name;
+    this.path = path;
+    if (subGroups != null) {
+      this.subGroups.addAll(subGroups);
+    }
   }
 }
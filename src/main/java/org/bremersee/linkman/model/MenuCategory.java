@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The menu category is the summary of a menu entry without it's links.
+ *
+ * @author Christian Bremer
+ */
+@Schema(description = "The category of a menu without it's links.")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+public class MenuCategory {
+
+  @Schema(description = "The ID of the category.", required = true)
+  @JsonProperty(value = "id", required = true)
+  private String id;
+
+  @Schema(description = "The name of the category.", required = true)
+  @JsonProperty(value = "category", required = true)
+  private String category;
+
+  @Schema(description = "Specifies whether the links of this category can be seen without "
+      + "authentication. Default is false.", required = true)
+  @JsonProperty(value = "pub", required = true)
+  private boolean pub;
+
+  @Schema(description = "The number of links of the category.", required = true)
+  @JsonProperty(value = "linkCount", required = true)
+  private long linkCount;
+
+  /**
+   * Instantiates a new menu category.
+   *
+   * @param id the id of the category
+   * @param category the name of the category
+   * @param pub specifies whether the category is public or not
+   * @param linkCount the number of links
+   */
+  @Builder(toBuilder = true)
+  @SuppressWarnings("unused")
+  public MenuCategory(
+      String id,
+      String category,
+      boolean pub,
+      long linkCount) {
+    this.id = id;
+    this.category = category;
+    this.pub = pub;
+    this.linkCount = linkCount;
+  }
+
+}
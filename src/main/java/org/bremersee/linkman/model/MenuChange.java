@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * The menu change.
+ *
+ * @author Christian Bremer
+ */
+@Schema(description = "A change of the menu.")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@Validated
+public class MenuChange {
+
+  @Schema(description = "The new content version.", required = true)
+  @JsonProperty(value = "version", required = true)
+  private long version;
+
+  @Schema(description = "The ids of the changed categories.")
+  @JsonProperty(value = "categoryIds")
+  private List<String> categoryIds = new ArrayList<>();
+
+  /**
+   * Instantiates a new menu change.
+   *
+   * @param version the new content version
+   * @param categoryIds the ids of the changed categories
+   */
+  @Builder(toBuilder = true)
+  public MenuChange(long version, Collection<String> categoryIds) {
+    this.version = version;
+    if (categoryIds != null) {
+      this.categoryIds.addAll(categoryIds);
+    }
+  }
+
+}
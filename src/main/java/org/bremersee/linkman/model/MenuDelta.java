@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The menu delta contains the menu entries, that were added or changed since a given version,
+ * and the ids of the categories, that were removed from the menu.
+ *
+ * @author Christian Bremer
+ */
+@Schema(description = "The changes of the menu since a given version.")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+public class MenuDelta {
+
+  @Schema(description = "The current content version.", required = true)
+  @JsonProperty(value = "version", required = true)
+  private long version;
+
+  @Schema(description = "The ids of all categories of the menu in the order of the menu.")
+  @JsonProperty("categoryIds")
+  private List<String> categoryIds = new ArrayList<>();
+
+  @Schema(description = "The added or changed menu entries.")
+  @JsonProperty("entries")
+  private List<MenuEntry> entries = new ArrayList<>();
+
+  @Schema(description = "The ids of the categories, that were removed from the menu.")
+  @JsonProperty("removedCategoryIds")
+  private List<String> removedCategoryIds = new ArrayList<>();
+
+  /**
+   * Instantiates a new menu delta.
+   *
+   * @param version the current content version
+   * @param categoryIds the ids of all categories of the menu
+   * @param entries the added or changed menu entries
+   * @param removedCategoryIds the ids of the removed categories
+   */
+  @Builder(toBuilder = true)
+  @SuppressWarnings("unused")
+  public MenuDelta(
+      long version,
+      List<String> categoryIds,
+      List<MenuEntry> entries,
+      List<String> removedCategoryIds) {
+    this.version = version;
+    if (categoryIds != null) {
+      this.categoryIds.addAll(categoryIds);
+    }
+    if (entries != null) {
+      this.entries.addAll(entries);
+    }
+    if (removedCategoryIds != null) {
+      this.removedCategoryIds.addAll(removedCategoryIds);
+    }
+  }
+
+}
@@ -39,6 +39,14 @@ import lombok.ToString;
 @NoArgsConstructor
 public class MenuEntry {
 
+  @Schema(description = "The ID of the category.")
+  @JsonProperty("categoryId")
+  private String categoryId;
+
+  @Schema(description = "The content version of the last change of the category or it's links.")
+  @JsonProperty("version")
+  private Long version;
+
   @Schema(description = "The name of the category.", required = true)
   @JsonProperty(value = "category", required = true)
   private String category;
@@ -55,6 +63,8 @@ public class MenuEntry {
   /**
    * Instantiates a new link container.
    *
+   * @param categoryId the category id
+   * @param version the version of the category
    * @param category the category
    * @param pub specifies whether the category is public or not
    * @param links the links
@@ -62,9 +72,13 @@ public class MenuEntry {
   @Builder(toBuilder = true)
   @SuppressWarnings("unused")
   public MenuEntry(
+      String categoryId,
+      Long version,
       String category,
       boolean pub,
       List<Link> links) {
+    this.categoryId = categoryId;
+    this.version = version;
     this.category = category;
     this.pub = pub;
     this.links = links;
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.StringUtils;
+
+/**
+ * The criteria of the access control list, that is embedded in categories and menu projections.
+ *
+ * @author Christian Bremer
+ */
+abstract class AclCriteria {
+
+  private AclCriteria() {
+  }
+
+  /**
+   * Creates the criteria to find readable documents. There is one branch per acl field (and not
+   * one per role or group), so that the query planner can use one (multikey) index of
+   * {@link AclEntity#INDEXED_PATHS} per branch, no matter how many roles and groups the user
+   * has.
+   *
+   * @param userId the user id
+   * @param roles the roles
+   * @param groups the groups
+   * @return the criteria
+   */
+  static Criteria readable(
+      String userId,
+      Set<String> roles,
+      Set<String> groups) {
+
+    final List<Criteria> criteriaList = new ArrayList<>(5);
+    criteriaList.add(Criteria.where("acl.read.guest").is(true));
+    if (StringUtils.hasText(userId)) {
+      criteriaList.add(Criteria.where("acl.owner").is(userId));
+      criteriaList.add(Criteria.where("acl.read.users").in(userId));
+    }
+    final Set<String> roleSet = withText(roles);
+    if (!roleSet.isEmpty()) {
+      criteriaList.add(Criteria.where("acl.read.roles").in(roleSet));
+    }
+    final Set<String> groupSet = withText(groups);
+    if (!groupSet.isEmpty()) {
+      criteriaList.add(Criteria.where("acl.read.groups").in(groupSet));
+    }
+    return new Criteria().orOperator(criteriaList.toArray(new Criteria[0]));
+  }
+
+  private static Set<String> withText(Set<String> values) {
+    if (values == null || values.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return values.stream()
+        .filter(StringUtils::hasText)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+}
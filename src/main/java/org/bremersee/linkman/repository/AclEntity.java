@@ -17,6 +17,7 @@
 package org.bremersee.linkman.repository;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
@@ -42,6 +43,18 @@ import org.springframework.data.mongodb.core.index.Indexed;
 @TypeAlias("acl")
 public class AclEntity implements Acl<AceEntity> {
 
+  /**
+   * The paths of the indexed fields relative to the access control list. The criteria of
+   * readable documents use one of them per branch, so they must be indexed in every collection,
+   * that embeds the access control list.
+   */
+  public static final List<String> INDEXED_PATHS = List.of(
+      "owner",
+      "read.guest",
+      "read.users",
+      "read.roles",
+      "read.groups");
+
   @Indexed
   private String owner;
 
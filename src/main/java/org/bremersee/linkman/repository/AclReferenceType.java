@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+/**
+ * The type of the names, that are referenced by the read access control entries of the
+ * categories.
+ *
+ * @author Christian Bremer
+ */
+public enum AclReferenceType {
+
+  /**
+   * The roles.
+   */
+  ROLES("acl.read.roles"),
+
+  /**
+   * The groups.
+   */
+  GROUPS("acl.read.groups");
+
+  private final String path;
+
+  AclReferenceType(String path) {
+    this.path = path;
+  }
+
+  /**
+   * Gets the path of the field.
+   *
+   * @return the path
+   */
+  public String getPath() {
+    return path;
+  }
+
+}
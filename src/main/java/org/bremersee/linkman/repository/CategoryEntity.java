@@ -16,10 +16,12 @@
 
 package org.bremersee.linkman.repository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,7 +29,6 @@ import lombok.Setter;
 import lombok.ToString;
 import org.bremersee.common.model.TwoLetterLanguageCode;
 import org.bremersee.linkman.model.Translation;
-import org.bremersee.security.access.PermissionConstants;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.annotation.TypeAlias;
@@ -60,6 +61,8 @@ public class CategoryEntity implements Comparable<CategoryEntity> {
 
   private Set<Translation> translations = new LinkedHashSet<>();
 
+  private Map<String, String> sortKeys = new LinkedHashMap<>();
+
   /**
    * Returns {@code true} if the category is public, otherwise {@code false}.
    *
@@ -67,11 +70,8 @@ public class CategoryEntity implements Comparable<CategoryEntity> {
    */
   @Transient
   public boolean isPublic() {
-    return Optional.ofNullable(getAcl())
-        .map(AclEntity::entryMap)
-        .map(entryMap -> entryMap.get(PermissionConstants.READ))
-        .map(AceEntity::isGuest)
-        .orElse(false);
+    // The entry map of the acl is a copy, so the read entry is used directly.
+    return acl != null && acl.getRead() != null && acl.getRead().isGuest();
   }
 
   /**
@@ -81,12 +81,62 @@ public class CategoryEntity implements Comparable<CategoryEntity> {
    * @return the name
    */
   public String getName(Locale language) {
-    final TwoLetterLanguageCode code = TwoLetterLanguageCode
-        .fromLocale(language, TwoLetterLanguageCode.EN);
-    return Optional.ofNullable(translations)
-        .flatMap(set -> set.stream().filter(entry -> code == entry.getLanguage()).findAny())
-        .map(Translation::getValue)
-        .orElse(name);
+    return getName(TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Gets name.
+   *
+   * @param language the language
+   * @return the name
+   */
+  public String getName(TwoLetterLanguageCode language) {
+    if (translations != null) {
+      for (Translation translation : translations) {
+        if (language == translation.getLanguage()) {
+          return translation.getValue();
+        }
+      }
+    }
+    return name;
+  }
+
+  /**
+   * Gets the sort key of the name. If there is no stored sort key for the language, it will be
+   * created.
+   *
+   * @param language the language
+   * @return the sort key
+   */
+  public String getSortKey(Locale language) {
+    return getSortKey(TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Gets the sort key of the name. If there is no stored sort key for the language, it will be
+   * created.
+   *
+   * @param language the language
+   * @return the sort key
+   */
+  public String getSortKey(TwoLetterLanguageCode language) {
+    final String sortKey = sortKeys != null ? sortKeys.get(SortKeys.key(language)) : null;
+    return sortKey != null ? sortKey : SortKeys.create(getName(language), language.toLocale());
+  }
+
+  /**
+   * Updates the sort keys of the given languages. It must be called, before the entity is
+   * saved.
+   *
+   * @param languages the languages
+   */
+  public void updateSortKeys(Collection<TwoLetterLanguageCode> languages) {
+    final Map<String, String> newSortKeys = new LinkedHashMap<>();
+    for (TwoLetterLanguageCode language : languages) {
+      final Locale locale = language.toLocale();
+      newSortKeys.put(SortKeys.key(language), SortKeys.create(getName(locale), locale));
+    }
+    sortKeys = newSortKeys;
   }
 
   @Override
@@ -117,7 +167,7 @@ public class CategoryEntity implements Comparable<CategoryEntity> {
 
   @Override
   public int compareTo(final CategoryEntity o) {
-    return compareTo(o, null);
+    return compareTo(o, TwoLetterLanguageCode.EN);
   }
 
   /**
@@ -128,11 +178,21 @@ public class CategoryEntity implements Comparable<CategoryEntity> {
    * @return the result
    */
   public int compareTo(final CategoryEntity o, final Locale language) {
+    return compareTo(o, TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Compare to.
+   *
+   * @param o the other category
+   * @param language the language
+   * @return the result
+   */
+  public int compareTo(final CategoryEntity o, final TwoLetterLanguageCode language) {
     int result = Integer.compare(order, o.order);
     return result != 0
         ? result
-        : String.valueOf(getName(language))
-            .compareToIgnoreCase(String.valueOf(o.getName(language)));
+        : getSortKey(language).compareTo(o.getSortKey(language));
   }
 
 }
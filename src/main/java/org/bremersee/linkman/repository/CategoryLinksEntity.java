@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A category together with it's links.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class CategoryLinksEntity {
+
+  private final CategoryEntity category;
+
+  private final List<LinkEntity> links;
+
+  /**
+   * Instantiates a new category with it's links.
+   *
+   * @param category the category
+   * @param links the links
+   */
+  public CategoryLinksEntity(CategoryEntity category, Collection<LinkEntity> links) {
+    this.category = category;
+    this.links = links != null ? new ArrayList<>(links) : new ArrayList<>();
+  }
+
+}
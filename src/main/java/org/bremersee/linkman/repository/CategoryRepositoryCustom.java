@@ -17,7 +17,9 @@
 package org.bremersee.linkman.repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import org.bremersee.common.model.TwoLetterLanguageCode;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -50,6 +52,43 @@ public interface CategoryRepositoryCustom {
    */
   Mono<CategoryEntity> findPublicCategory();
 
+  /**
+   * Find all names of the given type, that are referenced by the categories.
+   *
+   * @param type the reference type
+   * @return the referenced names
+   */
+  Mono<Set<String>> findAclReferences(AclReferenceType type);
+
+  /**
+   * Find the ids of the categories, that reference one of the given names.
+   *
+   * @param type the reference type
+   * @param names the names
+   * @return the category ids
+   */
+  Mono<List<String>> findIdsByAclReferences(AclReferenceType type, Collection<String> names);
+
+  /**
+   * Renames the given name in all categories with two multi updates ({@code $addToSet} and
+   * {@code $pull}).
+   *
+   * @param type the reference type
+   * @param name the name
+   * @param newName the new name
+   * @return the number of modified categories
+   */
+  Mono<Long> renameAclReference(AclReferenceType type, String name, String newName);
+
+  /**
+   * Removes the given names from all categories with one multi update ({@code $pull}).
+   *
+   * @param type the reference type
+   * @param names the names
+   * @return the number of modified categories
+   */
+  Mono<Long> removeAclReferences(AclReferenceType type, Collection<String> names);
+
   /**
    * Find readable categories.
    *
@@ -58,6 +97,44 @@ public interface CategoryRepositoryCustom {
    * @param groups the groups
    * @return the category entities
    */
-  Flux<CategoryEntity> findReadableCategories(String userId, Set<String> roles, Set<String> groups);
+  default Flux<CategoryEntity> findReadableCategories(
+      String userId,
+      Set<String> roles,
+      Set<String> groups) {
+    return findReadableCategories(userId, roles, groups, null);
+  }
+
+  /**
+   * Find readable categories. They are sorted by order and the sort key of the given language.
+   * If no language is given, categories with the same order are sorted by their default name.
+   *
+   * @param userId the user id
+   * @param roles the roles
+   * @param groups the groups
+   * @param language the language of the sort keys (can be {@code null})
+   * @return the category entities
+   */
+  Flux<CategoryEntity> findReadableCategories(
+      String userId,
+      Set<String> roles,
+      Set<String> groups,
+      TwoLetterLanguageCode language);
+
+  /**
+   * Find readable categories together with their links in one aggregation. Categories without
+   * links are not returned. They are sorted by order and the sort key of the given language. If
+   * no language is given, categories with the same order are sorted by their default name.
+   *
+   * @param userId the user id
+   * @param roles the roles
+   * @param groups the groups
+   * @param language the language of the sort keys (can be {@code null})
+   * @return the category entities with their links
+   */
+  Flux<CategoryLinksEntity> findReadableCategoriesWithLinks(
+      String userId,
+      Set<String> roles,
+      Set<String> groups,
+      TwoLetterLanguageCode language);
 
 }
@@ -18,16 +18,22 @@ package org.bremersee.linkman.repository;
 
 import static org.springframework.data.mongodb.core.query.Query.query;
 
-import java.util.ArrayList;
+import com.mongodb.client.result.UpdateResult;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.util.StringUtils;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -39,6 +45,18 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 public class CategoryRepositoryImpl implements CategoryRepositoryCustom {
 
+  private static final String CATEGORY_ID_FIELD = "categoryId";
+
+  private static final String LINKS_FIELD = "links";
+
+  private static final Sort MENU_ORDER = Sort.by(Order.asc("order"), Order.asc("name"));
+
+  private static Sort menuOrder(TwoLetterLanguageCode language) {
+    return language != null
+        ? Sort.by(Order.asc("order"), Order.asc(SortKeys.field(language)))
+        : MENU_ORDER;
+  }
+
   private ReactiveMongoTemplate mongoTemplate;
 
   /**
@@ -74,41 +92,107 @@ public class CategoryRepositoryImpl implements CategoryRepositoryCustom {
         CategoryEntity.class);
   }
 
+  @Override
+  public Mono<Set<String>> findAclReferences(AclReferenceType type) {
+    return mongoTemplate
+        .findDistinct(new Query(), type.getPath(), CategoryEntity.class, String.class)
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public Mono<List<String>> findIdsByAclReferences(
+      AclReferenceType type,
+      Collection<String> names) {
+
+    if (names == null || names.isEmpty()) {
+      return Mono.just(Collections.emptyList());
+    }
+    final Query query = query(Criteria.where(type.getPath()).in(names));
+    query.fields().include("id");
+    return mongoTemplate.find(query, CategoryEntity.class)
+        .map(CategoryEntity::getId)
+        .collectList();
+  }
+
+  @Override
+  public Mono<Long> renameAclReference(AclReferenceType type, String name, String newName) {
+    // The same array can't be modified by $addToSet and $pull in one update.
+    return mongoTemplate
+        .updateMulti(
+            query(Criteria.where(type.getPath()).is(name)),
+            new Update().addToSet(type.getPath(), newName),
+            CategoryEntity.class)
+        .then(mongoTemplate.updateMulti(
+            query(Criteria.where(type.getPath()).is(name)),
+            new Update().pull(type.getPath(), name),
+            CategoryEntity.class))
+        .map(UpdateResult::getModifiedCount);
+  }
+
+  @Override
+  public Mono<Long> removeAclReferences(AclReferenceType type, Collection<String> names) {
+    if (names == null || names.isEmpty()) {
+      return Mono.just(0L);
+    }
+    return mongoTemplate
+        .updateMulti(
+            query(Criteria.where(type.getPath()).in(names)),
+            new Update().pullAll(type.getPath(), names.toArray()),
+            CategoryEntity.class)
+        .map(UpdateResult::getModifiedCount);
+  }
+
   @Override
   public Flux<CategoryEntity> findReadableCategories(
       String userId,
       Set<String> roles,
-      Set<String> groups) {
-
-    final List<Criteria> criteriaList = new ArrayList<>();
-    criteriaList.add(Criteria.where("acl.read.guest").is(true));
-    Optional.ofNullable(userId)
-        .ifPresent(user -> {
-          criteriaList.add(Criteria.where("acl.owner").is(user));
-          criteriaList.add(Criteria.where("acl.read.users").all(user));
-        });
-    /*
-    Optional.ofNullable(groups)
-        .ifPresent(roleSet -> criteriaList
-            .add(Criteria.where("acl.read.roles").elemMatch(new Criteria().in(roleSet))));
-    Optional.ofNullable(groups)
-        .ifPresent(groupSet -> criteriaList
-            .add(Criteria.where("acl.read.groups").elemMatch(new Criteria().in(groupSet))));
-     */
-    Optional.ofNullable(roles).ifPresent(roleSet -> criteriaList.addAll(roleSet
-        .stream()
-        .filter(StringUtils::hasText)
-        .map(role -> Criteria.where("acl.read.roles").all(role))
-        .collect(Collectors.toList())));
-    Optional.ofNullable(groups).ifPresent(groupSet -> criteriaList.addAll(groupSet
-        .stream()
-        .filter(StringUtils::hasText)
-        .map(group -> Criteria.where("acl.read.groups").all(group))
-        .collect(Collectors.toList())));
-
-    final Criteria criteria = new Criteria()
-        .orOperator(criteriaList.toArray(new Criteria[0]));
-    return mongoTemplate.find(query(criteria), CategoryEntity.class);
+      Set<String> groups,
+      TwoLetterLanguageCode language) {
+
+    return mongoTemplate.find(
+        query(AclCriteria.readable(userId, roles, groups)).with(menuOrder(language)),
+        CategoryEntity.class);
+  }
+
+  @Override
+  public Flux<CategoryLinksEntity> findReadableCategoriesWithLinks(
+      String userId,
+      Set<String> roles,
+      Set<String> groups,
+      TwoLetterLanguageCode language) {
+
+    // The category id may be stored as object id, the link references it as string.
+    final Aggregation aggregation = Aggregation.newAggregation(
+        Aggregation.match(AclCriteria.readable(userId, roles, groups)),
+        Aggregation.sort(menuOrder(language)),
+        Aggregation.addFields()
+            .addFieldWithValueOf(
+                CATEGORY_ID_FIELD,
+                ConvertOperators.valueOf("_id").convertToString())
+            .build(),
+        Aggregation.lookup(
+            mongoTemplate.getCollectionName(LinkEntity.class),
+            CATEGORY_ID_FIELD,
+            "categoryIds",
+            LINKS_FIELD),
+        Aggregation.match(Criteria.where(LINKS_FIELD + ".0").exists(true)));
+    return mongoTemplate
+        .aggregate(
+            aggregation,
+            mongoTemplate.getCollectionName(CategoryEntity.class),
+            Document.class)
+        .map(this::toCategoryLinks);
+  }
+
+  private CategoryLinksEntity toCategoryLinks(Document document) {
+    final List<LinkEntity> links = document.getList(LINKS_FIELD, Document.class).stream()
+        .map(link -> mongoTemplate.getConverter().read(LinkEntity.class, link))
+        .collect(Collectors.toList());
+    document.remove(LINKS_FIELD);
+    document.remove(CATEGORY_ID_FIELD);
+    return new CategoryLinksEntity(
+        mongoTemplate.getConverter().read(CategoryEntity.class, document),
+        links);
   }
 
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * The category version repository.
+ *
+ * @author Christian Bremer
+ */
+public interface CategoryVersionRepository
+    extends ReactiveMongoRepository<CategoryVersionEntity, String>,
+    CategoryVersionRepositoryCustom {
+
+  /**
+   * Find the versions of the categories that were changed after the given version.
+   *
+   * @param version the version
+   * @return the category versions
+   */
+  Flux<CategoryVersionEntity> findByVersionGreaterThan(long version);
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import java.util.Collection;
+import reactor.core.publisher.Mono;
+
+/**
+ * The custom category version repository.
+ *
+ * @author Christian Bremer
+ */
+public interface CategoryVersionRepositoryCustom {
+
+  /**
+   * Sets the version of the given categories.
+   *
+   * @param categoryIds the category ids
+   * @param version the version
+   * @return void
+   */
+  Mono<Void> updateVersions(Collection<String> categoryIds, long version);
+
+  /**
+   * Allocates the next content version from the counter, that is shared by all instances. The
+   * counter is created with the given initial version, if it doesn't exist.
+   *
+   * @param initialVersion the initial version
+   * @return the allocated version
+   */
+  Mono<Long> nextContentVersion(long initialVersion);
+
+  /**
+   * Commits the given content version after the category versions are stored. The committed
+   * version only grows.
+   *
+   * @param version the version
+   * @return void
+   */
+  Mono<Void> commitContentVersion(long version);
+
+  /**
+   * Find the committed content version.
+   *
+   * @return the committed content version (empty, if no version was allocated yet)
+   */
+  Mono<Long> findContentVersion();
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collection;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The custom category version repository implementation.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("unused")
+public class CategoryVersionRepositoryImpl implements CategoryVersionRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  /**
+   * Instantiates a new custom category version repository.
+   *
+   * @param mongoTemplate the mongo template
+   */
+  public CategoryVersionRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<Void> updateVersions(Collection<String> categoryIds, long version) {
+    // The version only grows, an older concurrent update must not overwrite a newer one.
+    return Flux.fromIterable(categoryIds)
+        .concatMap(categoryId -> mongoTemplate.upsert(
+            query(Criteria.where("id").is(categoryId)),
+            new Update().max("version", version),
+            CategoryVersionEntity.class))
+        .then();
+  }
+
+  @Override
+  public Mono<Long> nextContentVersion(long initialVersion) {
+    return mongoTemplate
+        .upsert(
+            contentVersionQuery(),
+            new Update()
+                .setOnInsert("sequence", initialVersion)
+                .setOnInsert("version", initialVersion),
+            ContentVersionEntity.class)
+        .then(mongoTemplate.findAndModify(
+            contentVersionQuery(),
+            new Update().inc("sequence", 1L),
+            FindAndModifyOptions.options().returnNew(true),
+            ContentVersionEntity.class))
+        .map(ContentVersionEntity::getSequence);
+  }
+
+  @Override
+  public Mono<Void> commitContentVersion(long version) {
+    return mongoTemplate
+        .updateFirst(
+            contentVersionQuery(),
+            new Update().max("version", version),
+            ContentVersionEntity.class)
+        .then();
+  }
+
+  @Override
+  public Mono<Long> findContentVersion() {
+    return mongoTemplate.findById(ContentVersionEntity.ID, ContentVersionEntity.class)
+        .map(ContentVersionEntity::getVersion);
+  }
+
+  private static Query contentVersionQuery() {
+    return query(Criteria.where("id").is(ContentVersionEntity.ID));
+  }
+
+}
@@ -16,10 +16,12 @@
 
 package org.bremersee.linkman.repository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -77,10 +79,14 @@ public class LinkEntity implements Comparable<LinkEntity> {
 
   private Set<Translation> descriptionTranslations = new LinkedHashSet<>();
 
+  @Indexed(sparse = true)
   private String cardImage;
 
+  @Indexed(sparse = true)
   private String menuImage;
 
+  private Map<String, String> sortKeys = new LinkedHashMap<>();
+
   /**
    * Sets blank.
    *
@@ -97,12 +103,17 @@ public class LinkEntity implements Comparable<LinkEntity> {
    * @return the text
    */
   public String getText(Locale language) {
-    final TwoLetterLanguageCode code = TwoLetterLanguageCode
-        .fromLocale(language, TwoLetterLanguageCode.EN);
-    return Optional.ofNullable(textTranslations)
-        .flatMap(set -> set.stream().filter(entry -> code == entry.getLanguage()).findAny())
-        .map(Translation::getValue)
-        .orElse(text);
+    return getText(TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Gets text.
+   *
+   * @param language the language
+   * @return the text
+   */
+  public String getText(TwoLetterLanguageCode language) {
+    return translate(textTranslations, language, text);
   }
 
   /**
@@ -121,12 +132,70 @@ public class LinkEntity implements Comparable<LinkEntity> {
    * @return the description
    */
   public String getDescription(Locale language) {
-    final TwoLetterLanguageCode code = TwoLetterLanguageCode
-        .fromLocale(language, TwoLetterLanguageCode.EN);
-    return Optional.ofNullable(descriptionTranslations)
-        .flatMap(set -> set.stream().filter(entry -> code == entry.getLanguage()).findAny())
-        .map(Translation::getValue)
-        .orElse(description);
+    return getDescription(TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Gets description.
+   *
+   * @param language the language
+   * @return the description
+   */
+  public String getDescription(TwoLetterLanguageCode language) {
+    return translate(descriptionTranslations, language, description);
+  }
+
+  private static String translate(
+      Set<Translation> translations,
+      TwoLetterLanguageCode language,
+      String defaultValue) {
+
+    if (translations != null) {
+      for (Translation translation : translations) {
+        if (language == translation.getLanguage()) {
+          return translation.getValue();
+        }
+      }
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Gets the sort key of the text. If there is no stored sort key for the language, it will be
+   * created.
+   *
+   * @param language the language
+   * @return the sort key
+   */
+  public String getSortKey(Locale language) {
+    return getSortKey(TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Gets the sort key of the text. If there is no stored sort key for the language, it will be
+   * created.
+   *
+   * @param language the language
+   * @return the sort key
+   */
+  public String getSortKey(TwoLetterLanguageCode language) {
+    final String sortKey = sortKeys != null ? sortKeys.get(SortKeys.key(language)) : null;
+    return sortKey != null ? sortKey : SortKeys.create(getText(language), language.toLocale());
+  }
+
+  /**
+   * Updates the sort keys of the given languages. It must be called, before the entity is
+   * saved.
+   *
+   * @param languages the languages
+   */
+  public void updateSortKeys(Collection<TwoLetterLanguageCode> languages) {
+    final Map<String, String> newSortKeys = new LinkedHashMap<>();
+    for (TwoLetterLanguageCode language : languages) {
+      final Locale locale = language.toLocale();
+      newSortKeys.put(SortKeys.key(language), SortKeys.create(getText(locale), locale));
+    }
+    sortKeys = newSortKeys;
   }
 
   @Override
@@ -163,7 +232,7 @@ public class LinkEntity implements Comparable<LinkEntity> {
 
   @Override
   public int compareTo(@NonNull final LinkEntity o) {
-    return compareTo(o, null);
+    return compareTo(o, TwoLetterLanguageCode.EN);
   }
 
   /**
@@ -174,11 +243,21 @@ public class LinkEntity implements Comparable<LinkEntity> {
    * @return the result
    */
   public int compareTo(final LinkEntity o, final Locale language) {
+    return compareTo(o, TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN));
+  }
+
+  /**
+   * Compare to.
+   *
+   * @param o the other link
+   * @param language the language
+   * @return the result
+   */
+  public int compareTo(final LinkEntity o, final TwoLetterLanguageCode language) {
     int result = Integer.compare(order, o.order);
     return result != 0
         ? result
-        : String.valueOf(getText(language))
-            .compareToIgnoreCase(String.valueOf(o.getText(language)));
+        : getSortKey(language).compareTo(o.getSortKey(language));
   }
 
 }
@@ -16,6 +16,8 @@
 
 package org.bremersee.linkman.repository;
 
+import java.util.Collection;
+import java.util.Map;
 import org.springframework.data.domain.Sort;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -44,6 +46,22 @@ public interface LinkRepositoryCustom {
    */
   Flux<LinkEntity> findByCategoryId(String categoryId, Sort sort);
 
+  /**
+   * Count the links of the given categories.
+   *
+   * @param categoryIds the category ids
+   * @return the number of links per category id (categories without links are not contained)
+   */
+  Mono<Map<String, Long>> countByCategoryIds(Collection<String> categoryIds);
+
+  /**
+   * Checks whether a link references the given image as card or menu image.
+   *
+   * @param objectName the object name of the image
+   * @return {@code true} if a link references the image, otherwise {@code false}
+   */
+  Mono<Boolean> existsByImage(String objectName);
+
   /**
    * Remove category references. Links that have no references anymore, will be deleted.
    *
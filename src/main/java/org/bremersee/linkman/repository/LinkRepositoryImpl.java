@@ -16,9 +16,14 @@
 
 package org.bremersee.linkman.repository;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import org.bson.Document;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import reactor.core.publisher.Flux;
@@ -58,6 +63,33 @@ public class LinkRepositoryImpl implements LinkRepositoryCustom {
         .orElseGet(Flux::empty);
   }
 
+  @Override
+  public Mono<Map<String, Long>> countByCategoryIds(Collection<String> categoryIds) {
+    if (categoryIds == null || categoryIds.isEmpty()) {
+      return Mono.just(Collections.emptyMap());
+    }
+    final Aggregation aggregation = Aggregation.newAggregation(
+        Aggregation.match(Criteria.where("categoryIds").in(categoryIds)),
+        Aggregation.project("categoryIds"),
+        Aggregation.unwind("categoryIds"),
+        Aggregation.match(Criteria.where("categoryIds").in(categoryIds)),
+        Aggregation.group("categoryIds").count().as("count"));
+    return mongoTemplate
+        .aggregate(aggregation, mongoTemplate.getCollectionName(LinkEntity.class), Document.class)
+        .collectMap(
+            document -> document.getString("_id"),
+            document -> ((Number) document.get("count")).longValue());
+  }
+
+  @Override
+  public Mono<Boolean> existsByImage(String objectName) {
+    return mongoTemplate.exists(
+        Query.query(new Criteria().orOperator(
+            Criteria.where("cardImage").is(objectName),
+            Criteria.where("menuImage").is(objectName))),
+        LinkEntity.class);
+  }
+
   @Override
   public Mono<Void> removeCategoryReferences(String categoryId) {
     return findByCategoryId(categoryId)
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The menu projection is a denormalized category in one language with it's already localized
+ * and sorted links. There is one projection per category and available language.
+ *
+ * @author Christian Bremer
+ */
+@Document(collection = "menuProjections")
+@TypeAlias("menuProjection")
+@CompoundIndex(name = "menu_order", def = "{'language': 1, 'order': 1, 'sortName': 1}")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+public class MenuProjectionEntity {
+
+  @Id
+  private String id;
+
+  @Indexed
+  private String categoryId;
+
+  private TwoLetterLanguageCode language;
+
+  private AclEntity acl;
+
+  private boolean pub;
+
+  private int order;
+
+  private String name;
+
+  private String sortName;
+
+  private List<MenuProjectionLinkEntity> links = new ArrayList<>();
+
+  /**
+   * Creates the id of a menu projection.
+   *
+   * @param categoryId the category id
+   * @param language the language
+   * @return the id
+   */
+  public static String createId(String categoryId, TwoLetterLanguageCode language) {
+    return categoryId + ":" + language;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import java.util.Collection;
+import java.util.Set;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The custom menu projection repository.
+ *
+ * @author Christian Bremer
+ */
+public interface MenuProjectionRepositoryCustom {
+
+  /**
+   * Find readable menu projections with links, sorted by order and name.
+   *
+   * @param language the language
+   * @param userId the user id
+   * @param roles the roles
+   * @param groups the groups
+   * @return the menu projections
+   */
+  Flux<MenuProjectionEntity> findReadableMenuProjections(
+      TwoLetterLanguageCode language,
+      String userId,
+      Set<String> roles,
+      Set<String> groups);
+
+  /**
+   * Delete all projections, whose category does not exist anymore or whose language is not
+   * available anymore.
+   *
+   * @param categoryIds the ids of the existing categories
+   * @param languages the available languages
+   * @return void
+   */
+  Mono<Void> deleteOrphans(
+      Collection<String> categoryIds,
+      Collection<TwoLetterLanguageCode> languages);
+
+}
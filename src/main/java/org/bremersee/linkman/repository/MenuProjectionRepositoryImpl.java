@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collection;
+import java.util.Set;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The custom menu projection repository implementation.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("unused")
+public class MenuProjectionRepositoryImpl implements MenuProjectionRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  /**
+   * Instantiates a new custom menu projection repository.
+   *
+   * @param mongoTemplate the mongo template
+   */
+  public MenuProjectionRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Flux<MenuProjectionEntity> findReadableMenuProjections(
+      TwoLetterLanguageCode language,
+      String userId,
+      Set<String> roles,
+      Set<String> groups) {
+
+    final Criteria criteria = new Criteria().andOperator(
+        Criteria.where("language").is(language),
+        Criteria.where("links.0").exists(true),
+        AclCriteria.readable(userId, roles, groups));
+    return mongoTemplate.find(
+        query(criteria).with(Sort.by(Order.asc("order"), Order.asc("sortName"))),
+        MenuProjectionEntity.class);
+  }
+
+  @Override
+  public Mono<Void> deleteOrphans(
+      Collection<String> categoryIds,
+      Collection<TwoLetterLanguageCode> languages) {
+
+    final Criteria criteria = new Criteria().orOperator(
+        Criteria.where("categoryId").nin(categoryIds),
+        Criteria.where("language").nin(languages));
+    return mongoTemplate.remove(query(criteria), MenuProjectionEntity.class)
+        .then();
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+
+/**
+ * Creates the locale specific sort keys of categories and links. A sort key is the hex encoded
+ * collation key of a {@link Collator} with secondary strength, so case is ignored and umlauts are
+ * sorted like their base letters (e. g. 'Ärzte' before 'Bahn'). Because the hex encoding keeps
+ * the byte order, the sort keys can be compared as plain strings, in memory as well as by
+ * MongoDB.
+ *
+ * @author Christian Bremer
+ */
+public abstract class SortKeys {
+
+  /**
+   * The name of the field, that stores the sort keys.
+   */
+  public static final String FIELD = "sortKeys";
+
+  /**
+   * The maximum length of a collation key in bytes, so that an indexed sort key never exceeds
+   * the index key limit of MongoDB.
+   */
+  static final int MAX_KEY_BYTES = 255;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static final Map<TwoLetterLanguageCode, String> KEYS = new EnumMap<>(
+      TwoLetterLanguageCode.class);
+
+  static {
+    for (TwoLetterLanguageCode language : TwoLetterLanguageCode.values()) {
+      KEYS.put(language, language.toLocale().getLanguage());
+    }
+  }
+
+  private SortKeys() {
+  }
+
+  /**
+   * Gets the key of the given language in the sort keys map.
+   *
+   * @param language the language
+   * @return the key
+   */
+  public static String key(TwoLetterLanguageCode language) {
+    return KEYS.get(language);
+  }
+
+  /**
+   * Gets the path of the sort key field of the given language.
+   *
+   * @param language the language
+   * @return the field path
+   */
+  public static String field(TwoLetterLanguageCode language) {
+    return FIELD + "." + key(language);
+  }
+
+  /**
+   * Creates the sort key of the given value.
+   *
+   * @param value the value
+   * @param locale the locale
+   * @return the sort key
+   */
+  public static String create(String value, Locale locale) {
+    // Collator.getInstance returns a new (not thread safe) instance.
+    final Collator collator = Collator.getInstance(locale);
+    collator.setStrength(Collator.SECONDARY);
+    final byte[] bytes = collator.getCollationKey(String.valueOf(value)).toByteArray();
+    final byte[] key = bytes.length > MAX_KEY_BYTES ? Arrays.copyOf(bytes, MAX_KEY_BYTES) : bytes;
+    final char[] chars = new char[key.length * 2];
+    for (int i = 0; i < key.length; i++) {
+      chars[2 * i] = HEX[(key[i] >> 4) & 0x0f];
+      chars[2 * i + 1] = HEX[key[i] & 0x0f];
+    }
+    return new String(chars);
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The acl reference pruner removes roles and groups, that were deleted in keycloak, from the
+ * access control lists of all categories in the prune interval.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class AclReferencePruner implements DisposableBean {
+
+  private final boolean enabled;
+
+  private final Duration interval;
+
+  private final CategoryService categoryService;
+
+  private Disposable pruning;
+
+  /**
+   * Instantiates a new acl reference pruner.
+   *
+   * @param properties the properties
+   * @param categoryService the category service
+   */
+  public AclReferencePruner(
+      LinkmanProperties properties,
+      CategoryService categoryService) {
+    this.enabled = properties.getAclPrune().isEnabled();
+    this.interval = properties.getAclPrune().getInterval();
+    this.categoryService = categoryService;
+  }
+
+  /**
+   * Starts pruning.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    if (!enabled || interval == null || interval.isZero()) {
+      return;
+    }
+    log.info("Pruning acl references every {}.", interval);
+    pruning = Flux.interval(interval, interval)
+        .concatMap(tick -> categoryService.pruneAclReferences()
+            .doOnNext(size -> log.debug("Acl references of {} categories pruned.", size))
+            .onErrorResume(error -> {
+              log.error("Pruning acl references failed.", error);
+              return Mono.empty();
+            }))
+        .subscribe();
+  }
+
+  /**
+   * Stops pruning.
+   */
+  @Override
+  public void destroy() {
+    if (pruning != null) {
+      pruning.dispose();
+    }
+  }
+
+}
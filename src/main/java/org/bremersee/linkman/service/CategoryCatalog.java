@@ -0,0 +1,617 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.Translation;
+import org.bremersee.linkman.repository.AceEntity;
+import org.bremersee.linkman.repository.AclEntity;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The category catalog holds all categories in memory. It answers the read queries of the
+ * category repository, that are executed with nearly every request, like the readable
+ * categories of a user, the validation of category ids and the public category.
+ *
+ * <p>The categories are kept in an immutable snapshot, that is replaced atomically. The read
+ * permissions are stored as an inverted index: every owner, user, role and group is mapped to a
+ * bit set of category ordinals, so that the readable categories of a user are found by or-ing a
+ * few bit sets. Many users have the same roles and groups, so the categories, that are readable
+ * by a combination of roles and groups (the principal signature), are cached until the snapshot
+ * is replaced. Writes of the category service are written through into a new snapshot. Changes
+ * of other instances are announced by a remote {@link ContentChangedEvent}, then the catalog is
+ * reloaded. Changes, that were made directly in the database, are found by a consistency check,
+ * that compares the snapshot with the database in a configurable interval. Until the first
+ * snapshot is loaded, the queries are delegated to the repository.
+ *
+ * <p>Categories, that are written with the {@link CategoryRepository} instead of the category
+ * service (like test fixtures or migrations), are not seen until the next consistency check, so
+ * such a write needs an explicit {@link #reload()}.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class CategoryCatalog implements DisposableBean {
+
+  private static final Sort MENU_ORDER = Sort.by(Order.asc("order"), Order.asc("name"));
+
+  private static final Comparator<CategoryEntity> MENU_ORDER_COMPARATOR = Comparator
+      .comparingInt(CategoryEntity::getOrder)
+      .thenComparing(CategoryEntity::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final boolean enabled;
+
+  private final Duration consistencyCheckInterval;
+
+  private final Set<TwoLetterLanguageCode> availableLanguages;
+
+  private final CategoryRepository categoryRepository;
+
+  private final ContentVersion contentVersion;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+  private final Set<String> announcedIds = ConcurrentHashMap.newKeySet();
+
+  private final Cache<String, BitSet> signatures;
+
+  private Disposable consistencyCheck;
+
+  /**
+   * Instantiates a new category catalog.
+   *
+   * @param properties the properties
+   * @param categoryRepository the category repository
+   * @param contentVersion the content version
+   * @param meterRegistry the meter registry
+   */
+  public CategoryCatalog(
+      LinkmanProperties properties,
+      CategoryRepository categoryRepository,
+      ContentVersion contentVersion,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.enabled = properties.getCategoryCatalog().isEnabled();
+    this.consistencyCheckInterval = properties.getCategoryCatalog()
+        .getConsistencyCheckInterval();
+    this.availableLanguages = Set.copyOf(properties.getAvailableLanguages());
+    this.categoryRepository = categoryRepository;
+    this.contentVersion = contentVersion;
+    this.signatures = Caffeine.newBuilder()
+        .maximumSize(properties.getCategoryCatalog().getMaximumSignatures())
+        .recordStats()
+        .build();
+    meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics
+        .monitor(registry, signatures, "principalSignatures"));
+  }
+
+  /**
+   * Loads the catalog on start up and starts the consistency check.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+    reload().block();
+    log.info("Category catalog loaded.");
+    if (consistencyCheckInterval != null && !consistencyCheckInterval.isZero()) {
+      consistencyCheck = Flux.interval(consistencyCheckInterval, consistencyCheckInterval)
+          .concatMap(tick -> checkConsistency()
+              .onErrorResume(error -> {
+                log.error("Consistency check of category catalog failed.", error);
+                return Mono.empty();
+              }))
+          .subscribe();
+    }
+  }
+
+  /**
+   * Stops the consistency check.
+   */
+  @Override
+  public void destroy() {
+    if (consistencyCheck != null) {
+      consistencyCheck.dispose();
+    }
+  }
+
+  /**
+   * Reloads the catalog, when categories were changed by another instance. The ids of all
+   * announced changes are recorded, so that the consistency check does not take them for
+   * inconsistencies.
+   *
+   * @param event the event
+   */
+  @EventListener
+  public void onContentChanged(ContentChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    announcedIds.addAll(event.getCategoryIds());
+    if (!event.isRemote() || event.getCategoryIds().isEmpty()) {
+      return;
+    }
+    reload()
+        .doOnError(error -> log.error("Reloading category catalog failed.", error))
+        .onErrorResume(error -> Mono.empty())
+        .subscribe();
+  }
+
+  /**
+   * Reloads all categories from the database. A reload, that was started before another reload
+   * or a write, never replaces the result of the later one.
+   *
+   * @return void
+   */
+  public Mono<Void> reload() {
+    return load().then();
+  }
+
+  /**
+   * Compares the catalog with the database and reloads it, if the categories differ. Before, the
+   * shared content version is read, so that the changes of other instances are announced as
+   * remote {@link ContentChangedEvent}. For the announced changes a local event is published
+   * after the reload, so that menus, that were built from the old catalog, are rebuilt. Only the
+   * remaining differences (like direct writes into the database) get a new content version.
+   *
+   * @return the ids of the changed categories
+   */
+  public Mono<Set<String>> checkConsistency() {
+    if (!enabled) {
+      return Mono.just(Collections.emptySet());
+    }
+    return Mono.defer(() -> {
+      announcedIds.clear();
+      final Snapshot current = snapshot.get();
+      return contentVersion.current()
+          .then(load())
+          .map(loaded -> current != null
+              ? current.diff(loaded)
+              : Collections.<String>emptySet());
+    }).flatMap(changedIds -> {
+      if (changedIds.isEmpty()) {
+        return Mono.just(changedIds);
+      }
+      final Set<String> unannouncedIds = new LinkedHashSet<>(changedIds);
+      unannouncedIds.removeAll(announcedIds);
+      if (unannouncedIds.isEmpty()) {
+        contentVersion.publish(changedIds);
+        return Mono.just(changedIds);
+      }
+      log.warn("Category catalog was inconsistent, {} categories changed.",
+          unannouncedIds.size());
+      return contentVersion.increment(unannouncedIds).thenReturn(changedIds);
+    });
+  }
+
+  /**
+   * Writes a saved category through into the catalog.
+   *
+   * @param category the saved category
+   */
+  public void put(CategoryEntity category) {
+    update(categories -> {
+      final List<CategoryEntity> newCategories = new ArrayList<>(categories.size() + 1);
+      for (CategoryEntity entity : categories) {
+        if (!entity.getId().equals(category.getId())) {
+          newCategories.add(entity);
+        }
+      }
+      newCategories.add(category);
+      newCategories.sort(MENU_ORDER_COMPARATOR);
+      return newCategories;
+    });
+  }
+
+  /**
+   * Removes a deleted category from the catalog.
+   *
+   * @param id the id of the deleted category
+   */
+  public void remove(String id) {
+    update(categories -> categories.stream()
+        .filter(entity -> !entity.getId().equals(id))
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Find readable categories. The result is the same as the result of
+   * {@link CategoryRepository#findReadableCategories(String, Set, Set, TwoLetterLanguageCode)}.
+   *
+   * @param userId the user id
+   * @param roles the roles
+   * @param groups the groups
+   * @param language the language of the sort keys (can be {@code null})
+   * @return the category entities
+   */
+  public Flux<CategoryEntity> findReadableCategories(
+      String userId,
+      Set<String> roles,
+      Set<String> groups,
+      TwoLetterLanguageCode language) {
+
+    final Snapshot current = snapshot.get();
+    if (current == null) {
+      return categoryRepository.findReadableCategories(userId, roles, groups, language);
+    }
+    final String signature = current.generation + ":" + signature(roles, groups);
+    BitSet readable = signatures.getIfPresent(signature);
+    if (readable == null) {
+      readable = current.findReadable(roles, groups);
+      signatures.put(signature, readable);
+    }
+    return Flux.fromIterable(current.findReadableCategories(userId, readable, language));
+  }
+
+  /**
+   * Creates the principal signature of the given roles and groups. It is the same for all users
+   * with the same roles and groups, regardless of their order.
+   *
+   * @param roles the roles
+   * @param groups the groups
+   * @return the principal signature
+   */
+  static String signature(Collection<String> roles, Collection<String> groups) {
+    final StringBuilder sb = new StringBuilder();
+    if (roles != null) {
+      for (String role : new TreeSet<>(roles)) {
+        sb.append(role).append('\n');
+      }
+    }
+    // Role and group names never contain a tab, so this separates the roles from the groups.
+    sb.append('\t');
+    if (groups != null) {
+      for (String group : new TreeSet<>(groups)) {
+        sb.append('\n').append(group);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Validate category ids.
+   *
+   * @param categoryIds the category ids
+   * @return the existing category ids
+   */
+  public Mono<Set<String>> validateCategoryIds(Collection<String> categoryIds) {
+    final Snapshot current = snapshot.get();
+    if (current == null) {
+      return categoryRepository.validateCategoryIds(categoryIds);
+    }
+    if (categoryIds == null || categoryIds.isEmpty()) {
+      return Mono.just(Collections.emptySet());
+    }
+    return Mono.just(categoryIds.stream()
+        .filter(current.ordinals::containsKey)
+        .collect(Collectors.toSet()));
+  }
+
+  /**
+   * Count public categories.
+   *
+   * @return the size
+   */
+  public Mono<Long> countPublicCategories() {
+    final Snapshot current = snapshot.get();
+    if (current == null) {
+      return categoryRepository.countPublicCategories();
+    }
+    return Mono.just((long) current.guest.cardinality());
+  }
+
+  /**
+   * Find public category.
+   *
+   * @return the public category
+   */
+  public Mono<CategoryEntity> findPublicCategory() {
+    final Snapshot current = snapshot.get();
+    if (current == null) {
+      return categoryRepository.findPublicCategory();
+    }
+    final int ordinal = current.guest.nextSetBit(0);
+    return ordinal >= 0 ? Mono.just(current.categories.get(ordinal)) : Mono.empty();
+  }
+
+  private Mono<Snapshot> load() {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return Mono.defer(() -> {
+      final long gen = generation.incrementAndGet();
+      return categoryRepository.findAll(MENU_ORDER)
+          .collectList()
+          .map(categories -> {
+            final Snapshot loaded = new Snapshot(gen, categories, availableLanguages);
+            final Snapshot current = snapshot.accumulateAndGet(
+                loaded,
+                (prev, next) -> prev == null || next.generation > prev.generation
+                    ? next
+                    : prev);
+            if (current == loaded) {
+              signatures.invalidateAll();
+            }
+            return loaded;
+          });
+    });
+  }
+
+  private void update(Function<List<CategoryEntity>, List<CategoryEntity>> modification) {
+    if (!enabled) {
+      return;
+    }
+    // A snapshot is never modified, the categories are copied into a new one. A write, that
+    // happens before the first snapshot is loaded, is found by the consistency check.
+    snapshot.updateAndGet(current -> current == null
+        ? null
+        : new Snapshot(
+            generation.incrementAndGet(),
+            modification.apply(current.categories),
+            availableLanguages));
+    // The signatures contain the generation, so the old ones would never be hit again.
+    signatures.invalidateAll();
+  }
+
+  /**
+   * The immutable snapshot of the catalog.
+   */
+  static class Snapshot {
+
+    private final long generation;
+
+    private final List<CategoryEntity> categories;
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    private final Map<TwoLetterLanguageCode, int[]> languageOrders;
+
+    private final BitSet guest = new BitSet();
+
+    private final Map<String, BitSet> owners = new HashMap<>();
+
+    private final Map<String, BitSet> users = new HashMap<>();
+
+    private final Map<String, BitSet> roles = new HashMap<>();
+
+    private final Map<String, BitSet> groups = new HashMap<>();
+
+    /**
+     * Instantiates a new snapshot.
+     *
+     * @param generation the generation
+     * @param categories the categories in menu order
+     * @param languages the languages with stored sort keys
+     */
+    Snapshot(
+        long generation,
+        List<CategoryEntity> categories,
+        Collection<TwoLetterLanguageCode> languages) {
+
+      this.generation = generation;
+      this.categories = List.copyOf(categories);
+      for (int ordinal = 0; ordinal < this.categories.size(); ordinal++) {
+        final CategoryEntity category = this.categories.get(ordinal);
+        ordinals.put(category.getId(), ordinal);
+        final AclEntity acl = category.getAcl();
+        if (acl == null) {
+          continue;
+        }
+        add(owners, acl.getOwner(), ordinal);
+        final AceEntity read = acl.getRead();
+        if (read != null) {
+          if (read.isGuest()) {
+            guest.set(ordinal);
+          }
+          addAll(users, read.getUsers(), ordinal);
+          addAll(roles, read.getRoles(), ordinal);
+          addAll(groups, read.getGroups(), ordinal);
+        }
+      }
+      final Map<TwoLetterLanguageCode, int[]> orders = new EnumMap<>(
+          TwoLetterLanguageCode.class);
+      for (TwoLetterLanguageCode language : languages) {
+        orders.put(language, IntStream.range(0, this.categories.size())
+            .boxed()
+            .sorted((o1, o2) -> this.categories.get(o1)
+                .compareTo(this.categories.get(o2), language))
+            .mapToInt(Integer::intValue)
+            .toArray());
+      }
+      this.languageOrders = Collections.unmodifiableMap(orders);
+    }
+
+    private static void addAll(Map<String, BitSet> index, Collection<String> keys, int ordinal) {
+      if (keys != null) {
+        for (String key : keys) {
+          add(index, key, ordinal);
+        }
+      }
+    }
+
+    private static void add(Map<String, BitSet> index, String key, int ordinal) {
+      if (StringUtils.hasText(key)) {
+        index.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+      }
+    }
+
+    private static void or(BitSet result, Map<String, BitSet> index, String key) {
+      final BitSet bitSet = key != null ? index.get(key) : null;
+      if (bitSet != null) {
+        result.or(bitSet);
+      }
+    }
+
+    /**
+     * Find readable categories.
+     *
+     * @param userId the user id
+     * @param roles the roles
+     * @param groups the groups
+     * @param language the language of the sort keys (can be {@code null})
+     * @return the readable categories
+     */
+    List<CategoryEntity> findReadableCategories(
+        String userId,
+        Set<String> roles,
+        Set<String> groups,
+        TwoLetterLanguageCode language) {
+      return findReadableCategories(userId, findReadable(roles, groups), language);
+    }
+
+    /**
+     * Find the ordinals of the categories, that are readable by guests or by the given roles
+     * and groups.
+     *
+     * @param roles the roles
+     * @param groups the groups
+     * @return the ordinals of the readable categories
+     */
+    BitSet findReadable(Collection<String> roles, Collection<String> groups) {
+      final BitSet readable = (BitSet) guest.clone();
+      if (roles != null) {
+        for (String role : roles) {
+          or(readable, this.roles, role);
+        }
+      }
+      if (groups != null) {
+        for (String group : groups) {
+          or(readable, this.groups, group);
+        }
+      }
+      return readable;
+    }
+
+    /**
+     * Find readable categories.
+     *
+     * @param userId the user id
+     * @param readableByRolesAndGroups the ordinals of the categories, that are readable by the
+     *     roles and groups of the user; they are not modified
+     * @param language the language of the sort keys (can be {@code null})
+     * @return the readable categories
+     */
+    List<CategoryEntity> findReadableCategories(
+        String userId,
+        BitSet readableByRolesAndGroups,
+        TwoLetterLanguageCode language) {
+
+      final BitSet readable = (BitSet) readableByRolesAndGroups.clone();
+      if (StringUtils.hasText(userId)) {
+        or(readable, owners, userId);
+        or(readable, users, userId);
+      }
+      final List<CategoryEntity> result = new ArrayList<>(readable.cardinality());
+      final int[] order = language != null ? languageOrders.get(language) : null;
+      if (order == null) {
+        for (int i = readable.nextSetBit(0); i >= 0; i = readable.nextSetBit(i + 1)) {
+          result.add(categories.get(i));
+        }
+      } else {
+        for (int ordinal : order) {
+          if (readable.get(ordinal)) {
+            result.add(categories.get(ordinal));
+          }
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Gets the ids of the categories, that were added, removed or changed in the other
+     * snapshot.
+     *
+     * @param other the other snapshot
+     * @return the ids of the changed categories
+     */
+    Set<String> diff(Snapshot other) {
+      final Set<String> changedIds = new LinkedHashSet<>();
+      for (CategoryEntity category : categories) {
+        final Integer ordinal = other.ordinals.get(category.getId());
+        if (ordinal == null || !isSame(category, other.categories.get(ordinal))) {
+          changedIds.add(category.getId());
+        }
+      }
+      for (CategoryEntity category : other.categories) {
+        if (!ordinals.containsKey(category.getId())) {
+          changedIds.add(category.getId());
+        }
+      }
+      return changedIds;
+    }
+
+    private static boolean isSame(CategoryEntity c1, CategoryEntity c2) {
+      return c1.getOrder() == c2.getOrder()
+          && Objects.equals(c1.getName(), c2.getName())
+          && Objects.equals(c1.getAcl(), c2.getAcl())
+          && translations(c1).equals(translations(c2));
+    }
+
+    private static Map<TwoLetterLanguageCode, String> translations(CategoryEntity category) {
+      // The equality of translations only depends on the language, so the values are compared.
+      final Map<TwoLetterLanguageCode, String> map = new HashMap<>();
+      if (category.getTranslations() != null) {
+        for (Translation translation : category.getTranslations()) {
+          map.put(translation.getLanguage(), translation.getValue());
+        }
+      }
+      return map;
+    }
+  }
+
+}
@@ -16,7 +16,9 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.Collection;
 import org.bremersee.linkman.model.CategorySpec;
+import org.bremersee.linkman.repository.AclReferenceType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -74,4 +76,31 @@ public interface CategoryService {
    */
   Mono<Boolean> publicCategoryExists();
 
+  /**
+   * Renames a role or group in the access control lists of all categories.
+   *
+   * @param type the reference type
+   * @param name the name
+   * @param newName the new name
+   * @return the number of changed categories
+   */
+  Mono<Long> renameAclReference(AclReferenceType type, String name, String newName);
+
+  /**
+   * Removes roles or groups from the access control lists of all categories.
+   *
+   * @param type the reference type
+   * @param names the names
+   * @return the number of changed categories
+   */
+  Mono<Long> removeAclReferences(AclReferenceType type, Collection<String> names);
+
+  /**
+   * Removes all roles and groups, that don't exist anymore, from the access control lists of
+   * all categories.
+   *
+   * @return the number of changed categories
+   */
+  Mono<Long> pruneAclReferences();
+
 }
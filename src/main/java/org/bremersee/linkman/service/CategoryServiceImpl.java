@@ -21,7 +21,7 @@ import static org.bremersee.linkman.model.Translation.toTranslations;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
@@ -30,7 +30,7 @@ import org.bremersee.common.model.AccessControlList;
 import org.bremersee.exception.ServiceException;
 import org.bremersee.linkman.config.LinkmanProperties;
 import org.bremersee.linkman.model.CategorySpec;
-import org.bremersee.linkman.model.SelectOption;
+import org.bremersee.linkman.repository.AclReferenceType;
 import org.bremersee.linkman.repository.CategoryEntity;
 import org.bremersee.linkman.repository.CategoryRepository;
 import org.bremersee.linkman.repository.LinkRepository;
@@ -43,6 +43,7 @@ import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -67,6 +68,12 @@ public class CategoryServiceImpl implements CategoryService {
 
   private final ModelMapper modelMapper;
 
+  private final MenuProjector menuProjector;
+
+  private final CategoryCatalog categoryCatalog;
+
+  private final ContentVersion contentVersion;
+
   private final List<String> adminRoles;
 
   /**
@@ -79,6 +86,9 @@ public class CategoryServiceImpl implements CategoryService {
    * @param categoryRepository the category repository
    * @param linkRepository the link repository
    * @param modelMapper the model mapper
+   * @param menuProjector the menu projector
+   * @param categoryCatalog the category catalog
+   * @param contentVersion the content version
    */
   public CategoryServiceImpl(
       AuthProperties authProperties,
@@ -87,13 +97,19 @@ public class CategoryServiceImpl implements CategoryService {
       RoleService roleService,
       CategoryRepository categoryRepository,
       LinkRepository linkRepository,
-      ModelMapper modelMapper) {
+      ModelMapper modelMapper,
+      MenuProjector menuProjector,
+      CategoryCatalog categoryCatalog,
+      ContentVersion contentVersion) {
     this.linkmanProperties = linkmanProperties;
     this.groupService = groupService;
     this.roleService = roleService;
     this.categoryRepository = categoryRepository;
     this.linkRepository = linkRepository;
     this.modelMapper = modelMapper;
+    this.menuProjector = menuProjector;
+    this.categoryCatalog = categoryCatalog;
+    this.contentVersion = contentVersion;
     this.adminRoles = List.copyOf(authProperties.getRoleDefinitions().getOrDefault(
         "admin",
         Arrays.asList(AuthorityConstants.ADMIN_ROLE_NAME, "ROLE_LINK_ADMIN")));
@@ -115,7 +131,7 @@ public class CategoryServiceImpl implements CategoryService {
         .name(linkmanProperties.getPublicCategory().getName())
         .translations(toTranslations(linkmanProperties.getPublicCategory().getTranslations()))
         .build();
-    final CategorySpec savedPublicCategory = categoryRepository.countPublicCategories()
+    final CategorySpec savedPublicCategory = categoryCatalog.countPublicCategories()
         .filter(size -> size == 0)
         .flatMap(size -> addCategory(publicCategory))
         .block();
@@ -133,12 +149,16 @@ public class CategoryServiceImpl implements CategoryService {
   @Override
   public Mono<CategorySpec> addCategory(CategorySpec category) {
     return validateCategory(category)
-        .flatMap(model -> categoryRepository.countPublicCategories()
+        .flatMap(model -> categoryCatalog.countPublicCategories()
             .flatMap(size -> size > 0 && model.isPublic()
                 ? Mono.error(ServiceException.badRequest(
                 "There is already a public category.",
                 "ONLY_ONE_PUBLIC_CATEGORY_IS_ALLOWED"))
                 : categoryRepository.save(modelMapper.map(model, CategoryEntity.class)))
+            .doOnNext(categoryCatalog::put)
+            .flatMap(entity -> menuProjector.rebuildCategory(entity)
+                .then(contentVersion.increment(Set.of(entity.getId())))
+                .thenReturn(entity))
             .map(entity -> modelMapper.map(entity, CategorySpec.class)));
   }
 
@@ -156,7 +176,7 @@ public class CategoryServiceImpl implements CategoryService {
         .flatMap(entity -> validateCategory(category, entity)
             .flatMap(model -> {
               if (model.isPublic() && !entity.isPublic()) {
-                return categoryRepository.countPublicCategories()
+                return categoryCatalog.countPublicCategories()
                     .flatMap(size -> size > 0
                         ? Mono.error(ServiceException.badRequest(
                         "There is already a public category.",
@@ -167,21 +187,101 @@ public class CategoryServiceImpl implements CategoryService {
               }
             })
         )
+        .doOnNext(categoryCatalog::put)
+        .flatMap(entity -> menuProjector.rebuildCategory(entity)
+            .then(contentVersion.increment(Set.of(entity.getId())))
+            .thenReturn(entity))
         .map(entity -> modelMapper.map(entity, CategorySpec.class));
   }
 
   @Override
   public Mono<Void> deleteCategory(String id) {
     return categoryRepository.deleteById(id)
-        .then(linkRepository.removeCategoryReferences(id));
+        .then(Mono.fromRunnable(() -> categoryCatalog.remove(id)))
+        .then(linkRepository.removeCategoryReferences(id))
+        .then(menuProjector.deleteCategory(id))
+        .then(contentVersion.increment(Set.of(id)))
+        .then();
   }
 
   @Override
   public Mono<Boolean> publicCategoryExists() {
-    return categoryRepository.countPublicCategories()
+    return categoryCatalog.countPublicCategories()
         .map(size -> size > 0L);
   }
 
+  @Override
+  public Mono<Long> renameAclReference(AclReferenceType type, String name, String newName) {
+    if (!StringUtils.hasText(name) || !StringUtils.hasText(newName) || name.equals(newName)) {
+      return Mono.error(ServiceException.badRequest(
+          "The new name must not be empty and must differ from the name.",
+          "INVALID_NEW_NAME"));
+    }
+    // The new name is not validated, because the catalog of keycloak may not know it yet.
+    return categoryRepository.findIdsByAclReferences(type, List.of(name))
+        .flatMap(ids -> ids.isEmpty()
+            ? Mono.just(0L)
+            : categoryRepository.renameAclReference(type, name, newName)
+                .then(onAclReferencesChanged(ids)));
+  }
+
+  @Override
+  public Mono<Long> removeAclReferences(AclReferenceType type, Collection<String> names) {
+    return categoryRepository.findIdsByAclReferences(type, names)
+        .flatMap(ids -> ids.isEmpty()
+            ? Mono.just(0L)
+            : categoryRepository.removeAclReferences(type, names)
+                .then(onAclReferencesChanged(ids)));
+  }
+
+  @Override
+  public Mono<Long> pruneAclReferences() {
+    return Flux.just(AclReferenceType.ROLES, AclReferenceType.GROUPS)
+        .concatMap(this::pruneAclReferences)
+        .reduce(0L, Long::sum);
+  }
+
+  private Mono<Long> pruneAclReferences(AclReferenceType type) {
+    return categoryRepository.findAclReferences(type)
+        .flatMap(references -> validateAclReferences(type, references)
+            .flatMap(existing -> {
+              if (existing.isEmpty() && !references.isEmpty()) {
+                // An empty catalog is more likely a misconfiguration than a real one.
+                log.warn("No referenced {} exist, pruning is skipped.", type);
+                return Mono.just(0L);
+              }
+              final Set<String> dead = new LinkedHashSet<>(references);
+              dead.removeAll(existing);
+              if (type == AclReferenceType.ROLES) {
+                // The admin roles are added without validation, they must not be pruned.
+                dead.removeAll(adminRoles);
+              }
+              if (dead.isEmpty()) {
+                return Mono.just(0L);
+              }
+              log.info("Pruning {} {} from the access control lists: {}",
+                  dead.size(), type, dead);
+              return removeAclReferences(type, dead);
+            }));
+  }
+
+  private Mono<List<String>> validateAclReferences(
+      AclReferenceType type,
+      Collection<String> names) {
+
+    return type == AclReferenceType.ROLES
+        ? roleService.validateRoles(names)
+        : groupService.validateGroups(names);
+  }
+
+  private Mono<Long> onAclReferencesChanged(List<String> categoryIds) {
+    return categoryRepository.findAllById(categoryIds)
+        .doOnNext(categoryCatalog::put)
+        .concatMap(menuProjector::rebuildCategory)
+        .then(contentVersion.increment(Set.copyOf(categoryIds)))
+        .thenReturn((long) categoryIds.size());
+  }
+
   private Mono<CategorySpec> validateCategory(CategorySpec category) {
     return validateCategory(category, null);
   }
@@ -215,8 +315,8 @@ public class CategoryServiceImpl implements CategoryService {
           .roles(adminRoles)
           .build());
     }
-    return validateRoles(ace.getRoles())
-        .zipWith(validateGroups(ace.getGroups()))
+    return roleService.validateRoles(ace.getRoles())
+        .zipWith(groupService.validateGroups(ace.getGroups()))
         .map(rolesAndGroups -> AccessControlEntry.builder()
             .permission(PermissionConstants.READ)
             .guest(Boolean.TRUE.equals(ace.getGuest()))
@@ -226,26 +326,4 @@ public class CategoryServiceImpl implements CategoryService {
             .build());
   }
 
-  private Mono<List<String>> validateRoles(Collection<String> roles) {
-    if (roles == null || roles.isEmpty()) {
-      return Mono.just(Collections.emptyList());
-    }
-    final Set<String> roleSet = new HashSet<>(roles);
-    return roleService.getAllRoles()
-        .map(SelectOption::getValue)
-        .filter(roleSet::contains)
-        .collectList();
-  }
-
-  private Mono<List<String>> validateGroups(Collection<String> groups) {
-    if (groups == null || groups.isEmpty()) {
-      return Mono.just(Collections.emptyList());
-    }
-    final Set<String> groupSet = new HashSet<>(groups);
-    return groupService.getAllGroups()
-        .map(SelectOption::getValue)
-        .filter(groupSet::contains)
-        .collectList();
-  }
-
 }
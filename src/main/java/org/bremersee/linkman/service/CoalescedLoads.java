@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * The coalesced loads share one running load between concurrent callers (single flight). The
+ * load is kept, until it is completed; then the next call starts a new one. A failed load is
+ * not kept either, so it is retried by the next call.
+ *
+ * @author Christian Bremer
+ */
+public abstract class CoalescedLoads {
+
+  private CoalescedLoads() {
+  }
+
+  /**
+   * Gets the running load or starts a new one.
+   *
+   * @param <T> the type of the loaded value
+   * @param loading the running load
+   * @param loader the loader
+   * @return the running load
+   */
+  public static <T> Mono<T> coalesce(
+      AtomicReference<Mono<T>> loading,
+      Supplier<Mono<T>> loader) {
+    return loading.updateAndGet(running -> running != null
+        ? running
+        : Mono.defer(loader)
+            .doFinally(signalType -> loading.set(null))
+            .cache());
+  }
+
+  /**
+   * Gets the running load of the given key or starts a new one.
+   *
+   * @param <K> the type of the key
+   * @param <T> the type of the loaded value
+   * @param loading the running loads
+   * @param key the key
+   * @param loader the loader
+   * @return the running load of the key
+   */
+  public static <K, T> Mono<T> coalesce(
+      ConcurrentMap<K, Mono<T>> loading,
+      K key,
+      Function<K, Mono<T>> loader) {
+    return loading.computeIfAbsent(key, k -> Mono.defer(() -> loader.apply(k))
+        .doFinally(signalType -> loading.remove(k))
+        .cache());
+  }
+
+}
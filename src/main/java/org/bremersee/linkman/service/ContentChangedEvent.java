@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.Collection;
+import java.util.Set;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The event that is published, when categories or links were changed. A remote event is
+ * published, when the changes were made by another instance.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ContentChangedEvent {
+
+  private final long version;
+
+  private final Set<String> categoryIds;
+
+  private final boolean remote;
+
+  /**
+   * Instantiates a new content changed event of this instance.
+   *
+   * @param version the new content version
+   * @param categoryIds the ids of the affected categories
+   */
+  public ContentChangedEvent(long version, Collection<String> categoryIds) {
+    this(version, categoryIds, false);
+  }
+
+  /**
+   * Instantiates a new content changed event.
+   *
+   * @param version the new content version
+   * @param categoryIds the ids of the affected categories
+   * @param remote specifies whether the changes were made by another instance
+   */
+  public ContentChangedEvent(long version, Collection<String> categoryIds, boolean remote) {
+    this.version = version;
+    this.categoryIds = categoryIds != null ? Set.copyOf(categoryIds) : Set.of();
+    this.remote = remote;
+  }
+
+}
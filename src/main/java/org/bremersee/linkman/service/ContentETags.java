@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+import org.bremersee.security.core.UserContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates the entity tags of the read endpoints. An entity tag is derived from the
+ * {@link ContentVersion}, the request specific parts (like the principal and the language) and
+ * an epoch of the presigned image urls. The url epoch is half of the minimum validity of a
+ * presigned url, so that a client never revalidates a response with expired image urls. The
+ * content version must be refreshed with {@link #refresh()} before an entity tag is created, so
+ * that changes of other instances are seen.
+ *
+ * @author Christian Bremer
+ */
+@Component
+public class ContentETags {
+
+  private final ContentVersion contentVersion;
+
+  private final long urlEpochMillis;
+
+  /**
+   * Instantiates new content entity tags.
+   *
+   * @param presignedUrlCache the presigned url cache
+   * @param contentVersion the content version
+   */
+  public ContentETags(PresignedUrlCache presignedUrlCache, ContentVersion contentVersion) {
+    this.contentVersion = contentVersion;
+    this.urlEpochMillis = Math.max(
+        1000L,
+        presignedUrlCache.getMinimumUrlValidity().toMillis() / 2L);
+  }
+
+  /**
+   * Refreshes the content version, that is shared by all instances.
+   *
+   * @return the current content version
+   */
+  public Mono<Long> refresh() {
+    return contentVersion.current();
+  }
+
+  /**
+   * Gets the entity tag of the menu entries.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @return the entity tag
+   */
+  public String getMenuEntriesETag(UserContext userContext, Locale language) {
+    return create("menu", MenuCache.createKey(userContext, language));
+  }
+
+  /**
+   * Gets the entity tag of the menu delta.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @param since the version of the menu, the client already has
+   * @param knownCategoryIds the ids of the categories, the client already has (can be
+   *     {@code null})
+   * @return the entity tag
+   */
+  public String getMenuDeltaETag(
+      UserContext userContext,
+      Locale language,
+      long since,
+      Collection<String> knownCategoryIds) {
+
+    return create(
+        "menuDelta",
+        MenuCache.createKey(userContext, language),
+        String.valueOf(since),
+        knownCategoryIds != null
+            ? String.join(",", new TreeSet<>(knownCategoryIds))
+            : "-");
+  }
+
+  /**
+   * Gets the entity tag of the menu categories.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @return the entity tag
+   */
+  public String getMenuCategoriesETag(UserContext userContext, Locale language) {
+    return create("menuCategories", MenuCache.createKey(userContext, language));
+  }
+
+  /**
+   * Gets the entity tag of the links of a menu category.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @param categoryId the category id
+   * @return the entity tag
+   */
+  public String getMenuLinksETag(UserContext userContext, Locale language, String categoryId) {
+    return create("menuLinks", MenuCache.createKey(userContext, language), categoryId);
+  }
+
+  /**
+   * Gets the entity tag of the categories.
+   *
+   * @return the entity tag
+   */
+  public String getCategoriesETag() {
+    return create("categories");
+  }
+
+  /**
+   * Gets the entity tag of the links.
+   *
+   * @param categoryId the optional category id
+   * @return the entity tag
+   */
+  public String getLinksETag(String categoryId) {
+    return create("links", Objects.toString(categoryId, ""));
+  }
+
+  /**
+   * Creates an entity tag.
+   *
+   * @param parts the request specific parts
+   * @return the entity tag
+   */
+  String create(String... parts) {
+    final StringBuilder sb = new StringBuilder()
+        .append(contentVersion.get())
+        .append('\u0000')
+        .append(System.currentTimeMillis() / urlEpochMillis);
+    for (String part : parts) {
+      sb.append('\u0000').append(part);
+    }
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return "\"" + Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8))) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.repository.CategoryVersionEntity;
+import org.bremersee.linkman.repository.CategoryVersionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * The content version is a global generation counter, that is incremented on every write of a
+ * category or a link. The versions are allocated from a counter in the database, that is shared
+ * by all instances, so that the versions of different instances can be compared. The counter
+ * starts with the current time, so that versions of former (per instance) counters are never
+ * reused.
+ *
+ * <p>Changes of other instances are found, when the current version is read from the database
+ * (see {@link #current()}). Then a remote {@link ContentChangedEvent} with the categories, that
+ * were changed in the meantime, is published, so that the caches of this instance are cleared,
+ * too.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class ContentVersion {
+
+  private final AtomicLong version = new AtomicLong();
+
+  private final AtomicLong checkedAt = new AtomicLong();
+
+  private final AtomicReference<Mono<Long>> loading = new AtomicReference<>();
+
+  private final long checkIntervalMillis;
+
+  private final CategoryVersionRepository categoryVersionRepository;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Instantiates a new content version.
+   *
+   * @param properties the properties
+   * @param categoryVersionRepository the category version repository
+   * @param eventPublisher the event publisher
+   */
+  public ContentVersion(
+      LinkmanProperties properties,
+      CategoryVersionRepository categoryVersionRepository,
+      ApplicationEventPublisher eventPublisher) {
+    final Duration checkInterval = properties.getMenu().getVersionCheckInterval();
+    this.checkIntervalMillis = checkInterval != null ? checkInterval.toMillis() : 0L;
+    this.categoryVersionRepository = categoryVersionRepository;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Reads the current version on start up, before the other components are initialized.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void init() {
+    final Long current = categoryVersionRepository.findContentVersion().block();
+    if (current != null) {
+      version.accumulateAndGet(current, Math::max);
+    }
+    checkedAt.set(System.currentTimeMillis());
+    log.info("Content version is {}.", version.get());
+  }
+
+  /**
+   * Gets the last known version. It may be behind the version of the database, if another
+   * instance has changed categories or links; use {@link #current()} to get the current one.
+   *
+   * @return the last known version
+   */
+  public long get() {
+    return version.get();
+  }
+
+  /**
+   * Gets the current (committed) version. It is read from the database at most once in the
+   * configured version check interval, concurrent reads are coalesced. If another instance has
+   * changed categories or links, a remote {@link ContentChangedEvent} is published before the
+   * new version is returned.
+   *
+   * @return the current version
+   */
+  public Mono<Long> current() {
+    final long now = System.currentTimeMillis();
+    if (now - checkedAt.get() < checkIntervalMillis) {
+      return Mono.just(version.get());
+    }
+    return CoalescedLoads.coalesce(loading, () -> categoryVersionRepository
+        .findContentVersion()
+        .defaultIfEmpty(0L)
+        .flatMap(this::accept)
+        .doOnSuccess(current -> checkedAt.set(now)));
+  }
+
+  private Mono<Long> accept(long committed) {
+    final long previous = version.get();
+    if (committed <= previous) {
+      return Mono.just(previous);
+    }
+    // Without a known version, all categories would be affected (no ids).
+    final Mono<Set<String>> changedIds = previous > 0L
+        ? categoryVersionRepository.findByVersionGreaterThan(previous)
+            .map(CategoryVersionEntity::getId)
+            .collect(Collectors.toSet())
+        : Mono.just(Collections.emptySet());
+    return changedIds
+        .map(categoryIds -> {
+          // Only the one, that moves the version, publishes the event.
+          if (version.compareAndSet(previous, committed)) {
+            log.debug("Content was changed by another instance (version = {}, categories = {}).",
+                committed, categoryIds);
+            eventPublisher.publishEvent(new ContentChangedEvent(committed, categoryIds, true));
+          }
+          return version.get();
+        });
+  }
+
+  /**
+   * Publishes a {@link ContentChangedEvent} with the last known version without allocating a new
+   * one. It is used, when changes, that were already announced, were loaded later.
+   *
+   * @param categoryIds the ids of the affected categories
+   */
+  public void publish(Collection<String> categoryIds) {
+    eventPublisher.publishEvent(new ContentChangedEvent(version.get(), categoryIds));
+  }
+
+  /**
+   * Allocates a new version, stores it as version of the affected categories and publishes a
+   * {@link ContentChangedEvent}. The new version is committed (and visible with
+   * {@link #current()}), after the category versions are stored.
+   *
+   * @param categoryIds the ids of the affected categories
+   * @return the new version
+   */
+  public Mono<Long> increment(Collection<String> categoryIds) {
+    return categoryVersionRepository.nextContentVersion(System.currentTimeMillis())
+        .flatMap(newVersion -> categoryVersionRepository
+            .updateVersions(categoryIds, newVersion)
+            .then(categoryVersionRepository.commitContentVersion(newVersion))
+            .thenReturn(newVersion))
+        .doOnNext(newVersion -> {
+          version.accumulateAndGet(newVersion, Math::max);
+          eventPublisher.publishEvent(new ContentChangedEvent(newVersion, categoryIds));
+        });
+  }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.model.SelectOption;
+import org.springframework.util.StringUtils;
+
+/**
+ * The group hierarchy keeps the transitive ancestors of every group by the path of the group
+ * (like {@code staff/support}), so that the groups of a user can be expanded with one lookup per
+ * group. A user, who is a member of a sub group, is then granted everything, that is granted to
+ * the parent groups.
+ *
+ * <p>Access control lists may contain a group by its path or by its name. A group is only
+ * represented by its name, if no other group has the same name; otherwise a member of
+ * {@code staff/support} would be granted, what is granted to {@code sales/support}.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+class GroupHierarchy {
+
+  private final List<SelectOption> options;
+
+  private final Map<String, List<String>> ancestors;
+
+  private final Map<String, String> names;
+
+  private final Map<String, Set<String>> pathsByName;
+
+  private final Set<String> reportedNames = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Instantiates a new group hierarchy. The value of an option is the group name and the display
+   * value is the path of the group (like {@code staff/support}), so the ancestors are the paths
+   * of the parent groups.
+   *
+   * @param options the group options
+   */
+  GroupHierarchy(List<SelectOption> options) {
+    this.options = options;
+    this.ancestors = new HashMap<>();
+    this.names = new HashMap<>();
+    this.pathsByName = new HashMap<>();
+    for (SelectOption option : options) {
+      final String path = toPath(option.getDisplayValue());
+      if (!StringUtils.hasText(path)) {
+        continue;
+      }
+      final List<String> groupAncestors = new ArrayList<>();
+      int index = path.indexOf('/');
+      while (index > 0) {
+        groupAncestors.add(path.substring(0, index));
+        index = path.indexOf('/', index + 1);
+      }
+      ancestors.put(path, groupAncestors);
+      names.put(path, option.getValue());
+      pathsByName.computeIfAbsent(option.getValue(), name -> new LinkedHashSet<>()).add(path);
+    }
+  }
+
+  /**
+   * Determines whether this hierarchy was built from the given options.
+   *
+   * @param options the options
+   * @return {@code true} if it was built from the given options, otherwise {@code false}
+   */
+  boolean isBuiltFrom(List<SelectOption> options) {
+    return this.options == options;
+  }
+
+  /**
+   * Determines whether a group with the given path or name exists.
+   *
+   * @param group the path or the name of the group
+   * @return {@code true} if the group exists, otherwise {@code false}
+   */
+  boolean contains(String group) {
+    return group != null
+        && (ancestors.containsKey(toPath(group)) || pathsByName.containsKey(group));
+  }
+
+  /**
+   * Returns the given groups by their path and, if it is unique, by their name. Unknown groups
+   * and names of more than one group are returned as they are.
+   *
+   * @param groups the paths or names of the groups
+   * @return the groups by path and name
+   */
+  Set<String> qualify(Collection<String> groups) {
+    return resolve(groups, false);
+  }
+
+  /**
+   * Returns the given groups together with all their ancestors, by path and, if it is unique,
+   * by name. Only groups, whose path is known, are expanded; a name of more than one group is
+   * returned as it is.
+   *
+   * @param groups the paths or names of the groups
+   * @return the groups and their ancestors
+   */
+  Set<String> expand(Collection<String> groups) {
+    return resolve(groups, true);
+  }
+
+  private Set<String> resolve(Collection<String> groups, boolean withAncestors) {
+    if (groups == null || groups.isEmpty()) {
+      return Collections.emptySet();
+    }
+    final Set<String> resolved = new LinkedHashSet<>();
+    for (String group : groups) {
+      final String path = findPath(group);
+      if (path == null) {
+        resolved.add(group);
+        continue;
+      }
+      addPathAndName(path, resolved);
+      if (withAncestors) {
+        for (String ancestor : ancestors.get(path)) {
+          addPathAndName(ancestor, resolved);
+        }
+      }
+    }
+    return Collections.unmodifiableSet(resolved);
+  }
+
+  private String findPath(String group) {
+    if (!StringUtils.hasText(group)) {
+      return null;
+    }
+    final String path = toPath(group);
+    if (ancestors.containsKey(path)) {
+      return path;
+    }
+    final Set<String> paths = pathsByName.get(group);
+    if (paths == null) {
+      return null;
+    }
+    if (paths.size() > 1) {
+      if (reportedNames.add(group)) {
+        log.warn("Group name {} is ambiguous ({}), it is not expanded.", group, paths);
+      }
+      return null;
+    }
+    return paths.iterator().next();
+  }
+
+  private void addPathAndName(String path, Set<String> resolved) {
+    resolved.add(path);
+    final String name = names.get(path);
+    final Set<String> paths = pathsByName.get(name);
+    if (paths != null && paths.size() == 1) {
+      resolved.add(name);
+    }
+  }
+
+  /**
+   * Removes the leading slash of a group path, like it is emitted by keycloak.
+   *
+   * @param group the group path
+   * @return the path without leading slash
+   */
+  static String toPath(String group) {
+    return group != null && group.startsWith("/") ? group.substring(1) : group;
+  }
+
+}
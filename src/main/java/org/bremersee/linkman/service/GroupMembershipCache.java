@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * The group membership cache keeps the group ids of a user. Concurrent loads of the same user
+ * are coalesced into one call of the group service. An expired entry is reloaded; if the reload
+ * is slower than the stale timeout or fails, the stale entry is returned.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class GroupMembershipCache {
+
+  private final boolean enabled;
+
+  private final long timeToLiveMillis;
+
+  private final Duration staleTimeout;
+
+  private final Cache<String, Memberships> cache;
+
+  private final ConcurrentMap<String, Mono<Set<String>>> loading = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new group membership cache.
+   *
+   * @param properties the properties
+   * @param meterRegistry the meter registry
+   */
+  public GroupMembershipCache(
+      LinkmanProperties properties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+
+    final LinkmanProperties.MembershipCache cacheProperties = properties.getMembershipCache();
+    this.enabled = cacheProperties.isEnabled();
+    this.timeToLiveMillis = cacheProperties.getTimeToLive().toMillis();
+    this.staleTimeout = cacheProperties.getStaleTimeout();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(cacheProperties.getMaximumSize())
+        .expireAfterWrite(cacheProperties.getTimeToLive().plus(cacheProperties.getMaxStale()))
+        .recordStats()
+        .build();
+    meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics
+        .monitor(registry, cache, "groupMemberships"));
+    log.info("Group membership cache (enabled = {}, maximum size = {}, time to live = {}, "
+            + "stale timeout = {}, max stale = {})",
+        enabled, cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(),
+        staleTimeout, cacheProperties.getMaxStale());
+  }
+
+  /**
+   * Gets the cached group ids of the user or loads them with the given loader.
+   *
+   * @param userId the user id
+   * @param loader the loader of the group ids
+   * @return the group ids
+   */
+  public Mono<Set<String>> get(String userId, Supplier<Mono<Set<String>>> loader) {
+    if (!enabled || userId == null) {
+      return loader.get();
+    }
+    final Memberships memberships = cache.getIfPresent(userId);
+    if (memberships != null && memberships.isFresh()) {
+      return Mono.just(memberships.groupIds);
+    }
+    final Mono<Set<String>> load = CoalescedLoads.coalesce(loading, userId, key -> loader.get()
+        .doOnNext(groupIds -> cache.put(key, new Memberships(groupIds, timeToLiveMillis))));
+    if (memberships == null) {
+      return load;
+    }
+    return load
+        .timeout(staleTimeout, Mono.just(memberships.groupIds))
+        .onErrorResume(error -> {
+          log.warn("Loading group memberships of user {} failed, returning stale ones.",
+              userId, error);
+          return Mono.just(memberships.groupIds);
+        });
+  }
+
+  private static class Memberships {
+
+    private final Set<String> groupIds;
+
+    private final long expiresAt;
+
+    private Memberships(Set<String> groupIds, long timeToLiveMillis) {
+      this.groupIds = groupIds;
+      this.expiresAt = System.currentTimeMillis() + timeToLiveMillis;
+    }
+
+    private boolean isFresh() {
+      return System.currentTimeMillis() < expiresAt;
+    }
+  }
+
+}
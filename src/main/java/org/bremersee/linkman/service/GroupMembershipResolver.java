@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.groupman.api.GroupWebfluxControllerApi;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.MembershipSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * The group membership resolver returns the groups of the current user. Depending on the
+ * membership source they are loaded from the group service, read from a claim of the access
+ * token or both. If the group hierarchy is enabled, the groups are expanded with their ancestor
+ * groups, so that a group, that is granted access, grants it to its sub groups, too.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class GroupMembershipResolver {
+
+  private final MembershipSource source;
+
+  private final String[] claimPath;
+
+  private final boolean groupHierarchyEnabled;
+
+  private final GroupService groupHierarchyService;
+
+  private final GroupMembershipCache groupMembershipCache;
+
+  private final GroupWebfluxControllerApi groupService;
+
+  /**
+   * Instantiates a new group membership resolver.
+   *
+   * @param properties the properties
+   * @param groupHierarchyService the group service with the group hierarchy
+   * @param groupMembershipCache the group membership cache
+   * @param groupServiceProvider the group service provider
+   */
+  public GroupMembershipResolver(
+      LinkmanProperties properties,
+      GroupService groupHierarchyService,
+      GroupMembershipCache groupMembershipCache,
+      ObjectProvider<GroupWebfluxControllerApi> groupServiceProvider) {
+    this.source = properties.getMembershipSource();
+    Assert.notNull(this.source, "Membership source must be present.");
+    this.claimPath = StringUtils.delimitedListToStringArray(
+        properties.getMembershipClaimPath(), ".");
+    this.groupHierarchyEnabled = properties.isGroupHierarchyEnabled();
+    this.groupHierarchyService = groupHierarchyService;
+    this.groupMembershipCache = groupMembershipCache;
+    this.groupService = groupServiceProvider.getIfAvailable();
+    Assert.isTrue(
+        this.groupService != null || source == MembershipSource.JWT,
+        "Group service must be present.");
+    log.info("Group membership resolver (source = {}, claim path = {}, hierarchy enabled = {})",
+        source, properties.getMembershipClaimPath(), groupHierarchyEnabled);
+  }
+
+  /**
+   * Gets the group ids of the current user.
+   *
+   * @return the group ids
+   */
+  public Mono<Set<String>> getMembershipIds() {
+    final Mono<Set<String>> groupIds = ReactiveSecurityContextHolder.getContext()
+        .map(SecurityContext::getAuthentication)
+        .flatMap(this::getMembershipIds)
+        .switchIfEmpty(Mono.defer(() -> source == MembershipSource.JWT
+            ? Mono.just(Collections.emptySet())
+            : groupService.getMembershipIds()));
+    return groupHierarchyEnabled ? groupIds.flatMap(this::expand) : groupIds;
+  }
+
+  private Mono<Set<String>> expand(Set<String> groupIds) {
+    return groupHierarchyService.expandGroups(groupIds)
+        .onErrorResume(error -> {
+          log.warn("Expanding groups {} with their ancestors failed.", groupIds, error);
+          return Mono.just(groupIds);
+        });
+  }
+
+  private Mono<Set<String>> getMembershipIds(Authentication authentication) {
+    switch (source) {
+      case JWT:
+        return getClaimedGroups(authentication);
+      case BOTH:
+        // The token is always available, so a failing group service must not fail the request.
+        return getClaimedGroups(authentication)
+            .zipWith(loadGroups(authentication)
+                .onErrorResume(error -> {
+                  log.warn("Loading group memberships of user {} failed, using the claimed ones.",
+                      authentication.getName(), error);
+                  return Mono.just(Collections.emptySet());
+                }))
+            .map(tuple -> {
+              final Set<String> merged = new LinkedHashSet<>(tuple.getT1());
+              merged.addAll(tuple.getT2());
+              return merged;
+            });
+      default:
+        return loadGroups(authentication);
+    }
+  }
+
+  private Mono<Set<String>> loadGroups(Authentication authentication) {
+    return groupMembershipCache.get(authentication.getName(), groupService::getMembershipIds);
+  }
+
+  private Mono<Set<String>> getClaimedGroups(Authentication authentication) {
+    if (!(authentication instanceof AbstractOAuth2TokenAuthenticationToken)) {
+      return Mono.just(Collections.emptySet());
+    }
+    final Set<String> groups = getClaimedGroups(
+        ((AbstractOAuth2TokenAuthenticationToken<?>) authentication).getTokenAttributes(),
+        claimPath);
+    if (groups.isEmpty()) {
+      return Mono.just(groups);
+    }
+    // The access control lists contain a group by its path or, if it is unique, by its name.
+    return groupHierarchyService.qualifyGroups(groups)
+        .onErrorResume(error -> {
+          log.warn("Qualifying claimed groups {} failed.", groups, error);
+          return Mono.just(groups);
+        });
+  }
+
+  /**
+   * Gets the groups of the claim with the given path. Keycloak emits the full path of a group
+   * (like {@code /parent/child}), if it is configured so; such values are kept as path without
+   * the leading slash (like {@code parent/child}), because a group name may be used by more than
+   * one group.
+   *
+   * @param attributes the token attributes
+   * @param claimPath the claim path
+   * @return the groups
+   */
+  static Set<String> getClaimedGroups(Map<String, Object> attributes, String... claimPath) {
+    Object value = attributes;
+    for (String name : claimPath) {
+      if (!(value instanceof Map)) {
+        return Collections.emptySet();
+      }
+      value = ((Map<?, ?>) value).get(name);
+    }
+    final Collection<?> values;
+    if (value instanceof Collection) {
+      values = (Collection<?>) value;
+    } else if (value instanceof String) {
+      values = StringUtils.commaDelimitedListToSet((String) value);
+    } else {
+      return Collections.emptySet();
+    }
+    final Set<String> groups = new LinkedHashSet<>();
+    for (Object group : values) {
+      final String name = group != null ? GroupHierarchy.toPath(group.toString().trim()) : "";
+      if (StringUtils.hasText(name)) {
+        groups.add(name);
+      }
+    }
+    return Collections.unmodifiableSet(groups);
+  }
+
+}
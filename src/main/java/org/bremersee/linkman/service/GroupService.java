@@ -16,8 +16,12 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import org.bremersee.linkman.model.SelectOption;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The group service.
@@ -33,4 +37,30 @@ public interface GroupService {
    */
   Flux<SelectOption> getAllGroups();
 
+  /**
+   * Validate groups.
+   *
+   * @param groups the groups
+   * @return the existing groups
+   */
+  Mono<List<String>> validateGroups(Collection<String> groups);
+
+  /**
+   * Returns the given groups by their path and, if no other group has the same name, by their
+   * name, so that they match the access control entries of either.
+   *
+   * @param groups the paths or names of the groups
+   * @return the groups by path and name
+   */
+  Mono<Set<String>> qualifyGroups(Collection<String> groups);
+
+  /**
+   * Returns the given groups together with all their ancestor groups, by path and, if no other
+   * group has the same name, by name.
+   *
+   * @param groups the paths or names of the groups
+   * @return the groups and their ancestors
+   */
+  Mono<Set<String>> expandGroups(Collection<String> groups);
+
 }
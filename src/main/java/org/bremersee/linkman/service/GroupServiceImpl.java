@@ -16,11 +16,19 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.GroupRepresentation;
 import org.bremersee.linkman.model.SelectOption;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The group service implementation.
@@ -34,6 +42,10 @@ public class GroupServiceImpl implements GroupService {
 
   private final KeycloakClientApi keycloakClient;
 
+  private final SelectOptionCache cache;
+
+  private final AtomicReference<GroupHierarchy> hierarchy = new AtomicReference<>();
+
   /**
    * Instantiates a new group service.
    *
@@ -45,14 +57,111 @@ public class GroupServiceImpl implements GroupService {
       KeycloakClientApi keycloakClient) {
     this.properties = properties;
     this.keycloakClient = keycloakClient;
+    this.cache = new SelectOptionCache(
+        "groups",
+        properties.getKeycloakCache(),
+        this::loadAllGroups);
   }
 
   @Override
   public Flux<SelectOption> getAllGroups() {
-    return keycloakClient.getAllGroups(properties.getKeycloakRealm())
-        .filter(group -> StringUtils.hasText(group.getName())
-            && !properties.getExcludedGroups().contains(group.getName()))
-        .map(group -> new SelectOption(group.getName(), group.getName()));
+    return cache.getAll();
+  }
+
+  @Override
+  public Mono<List<String>> validateGroups(Collection<String> groups) {
+    if (groups == null || groups.isEmpty()) {
+      return Mono.just(List.of());
+    }
+    // Access control lists may contain a group by its path or by its name.
+    return getHierarchy().map(current -> groups.stream()
+        .filter(current::contains)
+        .distinct()
+        .collect(Collectors.toList()));
+  }
+
+  @Override
+  public Mono<Set<String>> qualifyGroups(Collection<String> groups) {
+    if (groups == null || groups.isEmpty()) {
+      return Mono.just(Set.of());
+    }
+    return getHierarchy().map(current -> current.qualify(groups));
+  }
+
+  @Override
+  public Mono<Set<String>> expandGroups(Collection<String> groups) {
+    if (groups == null || groups.isEmpty()) {
+      return Mono.just(Set.of());
+    }
+    return getHierarchy().map(current -> current.expand(groups));
+  }
+
+  private Mono<GroupHierarchy> getHierarchy() {
+    return cache.getList()
+        .map(options -> {
+          // The hierarchy is only rebuilt, when the groups were reloaded.
+          GroupHierarchy current = hierarchy.get();
+          if (current == null || !current.isBuiltFrom(options)) {
+            current = new GroupHierarchy(options);
+            hierarchy.set(current);
+          }
+          return current;
+        });
+  }
+
+  /**
+   * Loads all groups page by page. The number of top level groups determines the pages, that
+   * are fetched with bounded concurrency and emitted in their order, so that only a few pages
+   * are held in memory at once.
+   *
+   * @return the groups and their sub groups
+   */
+  private Flux<SelectOption> loadAllGroups() {
+    final String realm = properties.getKeycloakRealm();
+    final int pageSize = Math.max(1, properties.getKeycloakPageSize());
+    return keycloakClient.getGroupCount(realm, true)
+        .flatMapMany(count -> Flux.range(0, (int) ((count.getCount() + pageSize - 1) / pageSize)))
+        .flatMapSequential(
+            page -> keycloakClient.getGroups(realm, page * pageSize, pageSize),
+            Math.max(1, properties.getKeycloakPageConcurrency()))
+        .flatMapIterable(group -> flatten(group, "", new ArrayList<>()));
+  }
+
+  /**
+   * Adds the group and its sub groups to the options. The value of an option is the group name
+   * and the display value is the path of the group; the group memberships of a user are matched
+   * by path or, if it is unique, by name (see {@link GroupHierarchy}). The sub groups of an
+   * excluded group are excluded, too.
+   *
+   * @param group the group
+   * @param parentPath the path of the parent group
+   * @param options the options
+   * @return the options
+   */
+  private List<SelectOption> flatten(
+      GroupRepresentation group,
+      String parentPath,
+      List<SelectOption> options) {
+
+    if (!StringUtils.hasText(group.getName())
+        || properties.getExcludedGroups().contains(group.getName())) {
+      return options;
+    }
+    final String path = StringUtils.hasText(group.getPath())
+        ? group.getPath()
+        : parentPath + "/" + group.getName();
+    if (properties.getExcludedGroups().contains(path)) {
+      return options;
+    }
+    options.add(new SelectOption(
+        group.getName(),
+        path.startsWith("/") ? path.substring(1) : path));
+    if (group.getSubGroups() != null) {
+      for (GroupRepresentation subGroup : group.getSubGroups()) {
+        flatten(subGroup, path, options);
+      }
+    }
+    return options;
   }
 
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.bremersee.security.core.ReactiveUserContextCaller.EMPTY_USER_CONTEXT_SUPPLIER;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.ImageUrlStrategy;
+import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryRepository;
+import org.bremersee.security.core.UserContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * The guest menu keeps the menu of anonymous users for every available language as serialized
+ * and gzipped json. It is rendered on the first guest request and rendered again, when a
+ * category that guests can read (or its links) is changed. If the image urls are presigned, it
+ * is also rendered again before the image urls expire.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class GuestMenu {
+
+  private final Set<TwoLetterLanguageCode> availableLanguages;
+
+  private final MenuService menuService;
+
+  private final CategoryRepository categoryRepository;
+
+  private final CategoryCatalog categoryCatalog;
+
+  private final ContentVersion contentVersion;
+
+  private final ObjectMapper objectMapper;
+
+  private final boolean enabled;
+
+  private final long maxAgeMillis;
+
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+  private final AtomicBoolean rendering = new AtomicBoolean(false);
+
+  /**
+   * Instantiates a new guest menu.
+   *
+   * @param properties the properties
+   * @param menuService the menu service
+   * @param categoryRepository the category repository
+   * @param categoryCatalog the category catalog
+   * @param contentVersion the content version
+   * @param presignedUrlCache the presigned url cache
+   * @param objectMapper the object mapper
+   */
+  public GuestMenu(
+      LinkmanProperties properties,
+      MenuService menuService,
+      CategoryRepository categoryRepository,
+      CategoryCatalog categoryCatalog,
+      ContentVersion contentVersion,
+      PresignedUrlCache presignedUrlCache,
+      ObjectMapper objectMapper) {
+    this.availableLanguages = Set.copyOf(properties.getAvailableLanguages());
+    this.menuService = menuService;
+    this.categoryRepository = categoryRepository;
+    this.categoryCatalog = categoryCatalog;
+    this.contentVersion = contentVersion;
+    this.objectMapper = objectMapper;
+    this.enabled = properties.getMenu().isGuestMenuEnabled();
+    this.maxAgeMillis = properties.getImageUrlStrategy() == ImageUrlStrategy.PRESIGNED
+        ? presignedUrlCache.getMinimumUrlValidity().toMillis() / 2L
+        : Long.MAX_VALUE;
+  }
+
+  /**
+   * Gets the rendered guest menu of the given language. If there is none or if it is outdated,
+   * it will be rendered in the background and nothing is returned.
+   *
+   * @param language the language
+   * @return the rendered guest menu
+   */
+  public Optional<RenderedMenu> get(TwoLetterLanguageCode language) {
+    if (!enabled || language == null || !availableLanguages.contains(language)) {
+      return Optional.empty();
+    }
+    final Snapshot current = snapshot.get();
+    if (current == null || current.isOutdated(maxAgeMillis)) {
+      render().subscribe();
+      return Optional.empty();
+    }
+    return Optional.ofNullable(current.menus.get(language));
+  }
+
+  /**
+   * Gets the rendered guest menu of the given language like {@link #get(TwoLetterLanguageCode)},
+   * but the content version is refreshed before, so that changes of other instances are seen.
+   *
+   * @param language the language
+   * @return the rendered guest menu
+   */
+  public Mono<Optional<RenderedMenu>> getCurrent(TwoLetterLanguageCode language) {
+    if (!enabled) {
+      return Mono.just(Optional.empty());
+    }
+    return contentVersion.current().map(version -> get(language));
+  }
+
+  /**
+   * Renders the guest menu again, if a category that guests can read was changed.
+   *
+   * @param event the event
+   */
+  @EventListener
+  public void onContentChanged(ContentChangedEvent event) {
+    final Snapshot current = snapshot.get();
+    if (current == null) {
+      return;
+    }
+    if (event.getCategoryIds().isEmpty()
+        || !Collections.disjoint(current.categoryIds, event.getCategoryIds())) {
+      snapshot.compareAndSet(current, null);
+      render().subscribe();
+      return;
+    }
+    categoryRepository.findAllById(event.getCategoryIds())
+        .any(CategoryEntity::isPublic)
+        .filter(Boolean::booleanValue)
+        .flatMap(isPublic -> {
+          snapshot.compareAndSet(current, null);
+          return render();
+        })
+        .subscribe();
+  }
+
+  /**
+   * Renders the guest menu of all available languages. Nothing is returned, if a rendering is
+   * already running or if it failed.
+   *
+   * @return the rendered snapshot
+   */
+  public Mono<Snapshot> render() {
+    if (!rendering.compareAndSet(false, true)) {
+      return Mono.empty();
+    }
+    final long version = contentVersion.get();
+    final UserContext guest = EMPTY_USER_CONTEXT_SUPPLIER.get();
+    return categoryCatalog
+        .findReadableCategories(guest.getUserId(), guest.getRoles(), guest.getGroups(), null)
+        .map(CategoryEntity::getId)
+        .collect(Collectors.toSet())
+        .zipWith(Flux.fromIterable(availableLanguages)
+            .flatMap(language -> menuService.getMenuEntries(guest, language.toLocale())
+                .collectList()
+                .map(entries -> Tuples.of(language, render(entries))))
+            .collectMap(Tuple2::getT1, Tuple2::getT2))
+        .map(tuple -> new Snapshot(version, tuple.getT1(), tuple.getT2()))
+        .doOnNext(newSnapshot -> {
+          if (newSnapshot.version == contentVersion.get()) {
+            snapshot.set(newSnapshot);
+            log.debug("Guest menu rendered (version = {}).", version);
+          }
+        })
+        .doOnError(error -> log.error("Rendering guest menu failed.", error))
+        .onErrorResume(error -> Mono.empty())
+        .doFinally(signalType -> rendering.set(false));
+  }
+
+  private RenderedMenu render(List<MenuEntry> entries) {
+    try {
+      final byte[] json = objectMapper.writeValueAsBytes(entries);
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+        gzip.write(json);
+      }
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+      return new RenderedMenu(
+          json,
+          out.toByteArray(),
+          "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"");
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Serializing guest menu failed.", e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+
+  /**
+   * The rendered guest menu of one language.
+   */
+  @Getter
+  public static class RenderedMenu {
+
+    private final byte[] json;
+
+    private final byte[] gzippedJson;
+
+    private final String etag;
+
+    private RenderedMenu(byte[] json, byte[] gzippedJson, String etag) {
+      this.json = json;
+      this.gzippedJson = gzippedJson;
+      this.etag = etag;
+    }
+  }
+
+  /**
+   * The rendered guest menus of all available languages.
+   */
+  public static class Snapshot {
+
+    private final long version;
+
+    private final long createdAt = System.currentTimeMillis();
+
+    private final Set<String> categoryIds;
+
+    private final Map<TwoLetterLanguageCode, RenderedMenu> menus;
+
+    private Snapshot(
+        long version,
+        Set<String> categoryIds,
+        Map<TwoLetterLanguageCode, RenderedMenu> menus) {
+      this.version = version;
+      this.categoryIds = categoryIds;
+      this.menus = menus;
+    }
+
+    private boolean isOutdated(long maxAgeMillis) {
+      return System.currentTimeMillis() - createdAt > maxAgeMillis;
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import io.minio.ObjectStat;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The image service.
+ *
+ * @author Christian Bremer
+ */
+public interface ImageService {
+
+  /**
+   * Gets the meta data of an image.
+   *
+   * @param objectName the object name of the image
+   * @return the meta data
+   */
+  Mono<ObjectStat> getImageStat(String objectName);
+
+  /**
+   * Gets the content of an image. The content is streamed from the object store.
+   *
+   * @param objectName the object name of the image
+   * @param offset the optional offset of the first byte
+   * @param length the optional number of bytes
+   * @return the content
+   */
+  Flux<DataBuffer> getImage(String objectName, Long offset, Long length);
+
+}
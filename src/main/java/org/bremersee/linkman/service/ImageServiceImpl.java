@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import io.minio.ErrorCode;
+import io.minio.GetObjectArgs;
+import io.minio.ObjectStat;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import java.util.Set;
+import org.bremersee.data.minio.MinioOperations;
+import org.bremersee.exception.ServiceException;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.repository.LinkRepository;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The image service implementation. Only images, that are referenced by a link, are returned;
+ * other objects of the bucket are not found.
+ *
+ * @author Christian Bremer
+ */
+@Component
+public class ImageServiceImpl implements ImageService {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final Set<ErrorCode> NOT_FOUND_CODES = Set.of(
+      ErrorCode.NO_SUCH_KEY,
+      ErrorCode.NO_SUCH_OBJECT,
+      ErrorCode.NO_SUCH_BUCKET);
+
+  private final String bucketName;
+
+  private final MinioOperations minioOperations;
+
+  private final LinkRepository linkRepository;
+
+  private final DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+
+  /**
+   * Instantiates a new image service.
+   *
+   * @param properties the properties
+   * @param minioOperations the minio operations
+   * @param linkRepository the link repository
+   */
+  public ImageServiceImpl(
+      LinkmanProperties properties,
+      MinioOperations minioOperations,
+      LinkRepository linkRepository) {
+    this.bucketName = properties.getBucketName();
+    this.minioOperations = minioOperations;
+    this.linkRepository = linkRepository;
+  }
+
+  @Override
+  public Mono<ObjectStat> getImageStat(String objectName) {
+    return linkRepository.existsByImage(objectName)
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> ServiceException.notFound("Image", objectName)))
+        .then(Mono
+            .fromCallable(() -> minioOperations.statObject(StatObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .build()))
+            .subscribeOn(Schedulers.boundedElastic()))
+        .onErrorMap(
+            ImageServiceImpl::isNotFound,
+            error -> ServiceException.notFound("Image", objectName));
+  }
+
+  @Override
+  public Flux<DataBuffer> getImage(String objectName, Long offset, Long length) {
+    return DataBufferUtils
+        .readInputStream(
+            () -> minioOperations.getObject(GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .offset(offset)
+                .length(length)
+                .build()),
+            dataBufferFactory,
+            BUFFER_SIZE)
+        .subscribeOn(Schedulers.boundedElastic())
+        .onErrorMap(
+            ImageServiceImpl::isNotFound,
+            error -> ServiceException.notFound("Image", objectName));
+  }
+
+  /**
+   * Determines whether the error (or one of its causes) is the not found error of the object
+   * store. The minio operations may wrap the error of the minio client.
+   *
+   * @param error the error
+   * @return {@code true} if the object does not exist, otherwise {@code false}
+   */
+  static boolean isNotFound(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ErrorResponseException) {
+        final ErrorResponseException exception = (ErrorResponseException) cause;
+        return exception.errorResponse() != null
+            && NOT_FOUND_CODES.contains(exception.errorResponse().errorCode());
+      }
+    }
+    return false;
+  }
+
+}
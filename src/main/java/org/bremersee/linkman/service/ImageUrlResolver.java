@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.nio.charset.StandardCharsets;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.ImageUrlStrategy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * The image url resolver creates the urls of the card and menu images either as presigned urls
+ * of the object store or as stable urls of the image endpoint.
+ *
+ * @author Christian Bremer
+ */
+@Component
+public class ImageUrlResolver {
+
+  private final ImageUrlStrategy strategy;
+
+  private final String imageBaseUrl;
+
+  private final PresignedUrlCache presignedUrlCache;
+
+  /**
+   * Instantiates a new image url resolver.
+   *
+   * @param properties the properties
+   * @param presignedUrlCache the presigned url cache
+   */
+  public ImageUrlResolver(
+      LinkmanProperties properties,
+      PresignedUrlCache presignedUrlCache) {
+    this.strategy = properties.getImageUrlStrategy();
+    this.imageBaseUrl = properties.getImageBaseUrl().endsWith("/")
+        ? properties.getImageBaseUrl()
+        : properties.getImageBaseUrl() + "/";
+    this.presignedUrlCache = presignedUrlCache;
+  }
+
+  /**
+   * Gets the url of the given image.
+   *
+   * @param objectName the object name of the image
+   * @return the url or {@code null}, if the object name is empty
+   */
+  public String getUrl(String objectName) {
+    if (!StringUtils.hasText(objectName)) {
+      return null;
+    }
+    if (strategy == ImageUrlStrategy.STABLE) {
+      return imageBaseUrl + UriUtils.encodePathSegment(objectName, StandardCharsets.UTF_8);
+    }
+    return presignedUrlCache.getUrl(objectName);
+  }
+
+}
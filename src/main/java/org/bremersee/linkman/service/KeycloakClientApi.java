@@ -16,12 +16,15 @@
 
 package org.bremersee.linkman.service;
 
+import org.bremersee.linkman.model.CountRepresentation;
 import org.bremersee.linkman.model.GroupRepresentation;
 import org.bremersee.linkman.model.RoleRepresentation;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The keycloak client api.
@@ -38,12 +41,31 @@ public interface KeycloakClientApi {
   Flux<RoleRepresentation> getAllRoles(@PathVariable("realm") String realm);
 
   /**
-   * Gets all groups.
+   * Gets one page of the top level groups together with their sub groups.
    *
    * @param realm the realm
-   * @return all groups
+   * @param first the index of the first top level group
+   * @param max the maximum number of top level groups
+   * @return the groups
    */
   @GetMapping(path = "/admin/realms/{realm}/groups", produces = MediaType.APPLICATION_JSON_VALUE)
-  Flux<GroupRepresentation> getAllGroups(@PathVariable("realm") String realm);
+  Flux<GroupRepresentation> getGroups(
+      @PathVariable("realm") String realm,
+      @RequestParam("first") int first,
+      @RequestParam("max") int max);
+
+  /**
+   * Gets the number of groups.
+   *
+   * @param realm the realm
+   * @param top {@code true} to count only the top level groups
+   * @return the number of groups
+   */
+  @GetMapping(
+      path = "/admin/realms/{realm}/groups/count",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  Mono<CountRepresentation> getGroupCount(
+      @PathVariable("realm") String realm,
+      @RequestParam("top") boolean top);
 
 }
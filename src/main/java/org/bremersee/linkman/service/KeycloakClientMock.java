@@ -16,10 +16,13 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.List;
+import org.bremersee.linkman.model.CountRepresentation;
 import org.bremersee.linkman.model.GroupRepresentation;
 import org.bremersee.linkman.model.RoleRepresentation;
 import org.bremersee.security.core.AuthorityConstants;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The keycloak client mock.
@@ -28,6 +31,20 @@ import reactor.core.publisher.Flux;
  */
 public class KeycloakClientMock implements KeycloakClientApi {
 
+  private static final List<GroupRepresentation> GROUPS = List.of(
+      GroupRepresentation.builder()
+          .name("developer")
+          .path("/developer")
+          .subGroups(List.of(GroupRepresentation.builder()
+              .name("frontend")
+              .path("/developer/frontend")
+              .build()))
+          .build(),
+      GroupRepresentation.builder()
+          .name("Company Admins")
+          .path("/Company Admins")
+          .build());
+
   @Override
   public Flux<RoleRepresentation> getAllRoles(String realm) {
     return Flux.fromArray(new RoleRepresentation[]{
@@ -47,14 +64,12 @@ public class KeycloakClientMock implements KeycloakClientApi {
   }
 
   @Override
-  public Flux<GroupRepresentation> getAllGroups(String realm) {
-    return Flux.fromArray(new GroupRepresentation[]{
-        GroupRepresentation.builder()
-            .name("developer")
-            .build(),
-        GroupRepresentation.builder()
-            .name("Company Admins")
-            .build()
-    });
+  public Flux<GroupRepresentation> getGroups(String realm, int first, int max) {
+    return Flux.fromIterable(GROUPS).skip(first).take(max);
+  }
+
+  @Override
+  public Mono<CountRepresentation> getGroupCount(String realm, boolean top) {
+    return Mono.just(new CountRepresentation(GROUPS.size()));
   }
 }
@@ -20,14 +20,17 @@ import static org.bremersee.linkman.model.LinkSpec.CARD_IMAGE_NAME;
 import static org.bremersee.linkman.model.LinkSpec.MENU_IMAGE_NAME;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.data.minio.DeleteMode;
 import org.bremersee.data.minio.MinioObjectId;
 import org.bremersee.data.minio.MinioRepository;
 import org.bremersee.exception.ServiceException;
 import org.bremersee.linkman.model.LinkSpec;
-import org.bremersee.linkman.repository.CategoryRepository;
 import org.bremersee.linkman.repository.LinkEntity;
 import org.bremersee.linkman.repository.LinkRepository;
 import org.modelmapper.ModelMapper;
@@ -50,29 +53,44 @@ public class LinkServiceImpl implements LinkService {
 
   private final LinkRepository linkRepository;
 
-  private final CategoryRepository categoryRepository;
+  private final CategoryCatalog categoryCatalog;
 
   private final ModelMapper modelMapper;
 
   private final MinioRepository imageRepository;
 
+  private final PresignedUrlCache presignedUrlCache;
+
+  private final MenuProjector menuProjector;
+
+  private final ContentVersion contentVersion;
+
   /**
    * Instantiates a new link service.
    *
    * @param linkRepository the link repository
-   * @param categoryRepository the category repository
+   * @param categoryCatalog the category catalog
    * @param imageRepository the minio image repository
+   * @param presignedUrlCache the presigned url cache
    * @param modelMapper the model mapper
+   * @param menuProjector the menu projector
+   * @param contentVersion the content version
    */
   public LinkServiceImpl(
       LinkRepository linkRepository,
-      CategoryRepository categoryRepository,
+      CategoryCatalog categoryCatalog,
       MinioRepository imageRepository,
-      ModelMapper modelMapper) {
+      PresignedUrlCache presignedUrlCache,
+      ModelMapper modelMapper,
+      MenuProjector menuProjector,
+      ContentVersion contentVersion) {
     this.linkRepository = linkRepository;
-    this.categoryRepository = categoryRepository;
+    this.categoryCatalog = categoryCatalog;
     this.imageRepository = imageRepository;
+    this.presignedUrlCache = presignedUrlCache;
     this.modelMapper = modelMapper;
+    this.menuProjector = menuProjector;
+    this.contentVersion = contentVersion;
   }
 
   @Override
@@ -86,13 +104,14 @@ public class LinkServiceImpl implements LinkService {
 
   @Override
   public Mono<LinkSpec> addLink(LinkSpec link) {
-    return categoryRepository.validateCategoryIds(link.getCategoryIds())
+    return categoryCatalog.validateCategoryIds(link.getCategoryIds())
         .map(categoryIds -> link.toBuilder()
             .id(null)
             .categoryIds(categoryIds)
             .build())
         .flatMap(model -> linkRepository
             .save(modelMapper.map(model, LinkEntity.class))
+            .flatMap(entity -> onLinkChanged(entity, Collections.emptySet()))
             .map(entity -> modelMapper.map(entity, LinkSpec.class)));
   }
 
@@ -107,18 +126,21 @@ public class LinkServiceImpl implements LinkService {
   public Mono<LinkSpec> updateLink(String id, LinkSpec link) {
     return linkRepository.findById(id)
         .switchIfEmpty(Mono.error(() -> ServiceException.notFound("Link", id)))
-        .flatMap(entity -> categoryRepository
-            .validateCategoryIds(link.getCategoryIds())
-            .map(categoryIds -> link.toBuilder()
-                .id(entity.getId())
-                .categoryIds(categoryIds)
-                .build())
-            .map(model -> {
-              modelMapper.map(model, entity);
-              return entity;
-            })
-        )
-        .flatMap(linkRepository::save)
+        .flatMap(entity -> {
+          final Set<String> oldCategoryIds = new LinkedHashSet<>(entity.getCategoryIds());
+          return categoryCatalog
+              .validateCategoryIds(link.getCategoryIds())
+              .map(categoryIds -> link.toBuilder()
+                  .id(entity.getId())
+                  .categoryIds(categoryIds)
+                  .build())
+              .map(model -> {
+                modelMapper.map(model, entity);
+                return entity;
+              })
+              .flatMap(linkRepository::save)
+              .flatMap(savedEntity -> onLinkChanged(savedEntity, oldCategoryIds));
+        })
         .map(entity -> modelMapper.map(entity, LinkSpec.class));
   }
 
@@ -128,20 +150,30 @@ public class LinkServiceImpl implements LinkService {
       MultipartFile cardImage,
       MultipartFile menuImage) {
 
-    System.out.println("images: card = " + cardImage.isEmpty() + ", menu = " + menuImage.isEmpty());
+    log.debug("Updating images of link {}: card = {}, menu = {}",
+        id, !cardImage.isEmpty(), !menuImage.isEmpty());
     return linkRepository.findById(id)
         .switchIfEmpty(Mono.error(() -> ServiceException.notFound("Link", id)))
         .flatMap(entity -> {
-          String cardImageName = entity.getId() + "_card_image";
+          final List<String> replacedImages = new ArrayList<>(2);
+          String cardImageName = createImageName(entity.getId(), "_card_image_");
           imageRepository
               .save(MinioObjectId.from(cardImageName), cardImage, DeleteMode.ALWAYS)
-              .ifPresent(response -> entity.setCardImage(response.object()));
-          String menuImageName = entity.getId() + "_menu_image";
+              .ifPresent(response -> {
+                replacedImages.add(entity.getCardImage());
+                entity.setCardImage(response.object());
+              });
+          String menuImageName = createImageName(entity.getId(), "_menu_image_");
           imageRepository
               .save(MinioObjectId.from(menuImageName), menuImage, DeleteMode.ALWAYS)
-              .ifPresent(response -> entity.setMenuImage(response.object()));
-          return linkRepository.save(entity);
+              .ifPresent(response -> {
+                replacedImages.add(entity.getMenuImage());
+                entity.setMenuImage(response.object());
+              });
+          return linkRepository.save(entity)
+              .doOnNext(savedEntity -> replacedImages.forEach(this::deleteReplacedImage));
         })
+        .flatMap(entity -> onLinkChanged(entity, Collections.emptySet()))
         .map(entity -> modelMapper.map(entity, LinkSpec.class));
   }
 
@@ -152,14 +184,17 @@ public class LinkServiceImpl implements LinkService {
         .flatMap(entity -> {
           if (StringUtils.hasText(entity.getCardImage()) && names.contains(CARD_IMAGE_NAME)) {
             imageRepository.delete(MinioObjectId.from(entity.getCardImage()));
+            presignedUrlCache.evict(entity.getCardImage());
             entity.setCardImage(null);
           }
           if (StringUtils.hasText(entity.getMenuImage()) && names.contains(MENU_IMAGE_NAME)) {
             imageRepository.delete(MinioObjectId.from(entity.getMenuImage()));
+            presignedUrlCache.evict(entity.getMenuImage());
             entity.setMenuImage(null);
           }
           return linkRepository.save(entity);
         })
+        .flatMap(entity -> onLinkChanged(entity, Collections.emptySet()))
         .map(linkEntity -> modelMapper.map(linkEntity, LinkSpec.class));
   }
 
@@ -177,9 +212,44 @@ public class LinkServiceImpl implements LinkService {
           }
           if (!imageIds.isEmpty()) {
             imageRepository.deleteAll(imageIds);
+            presignedUrlCache.evict(entity.getCardImage());
+            presignedUrlCache.evict(entity.getMenuImage());
           }
-          return linkRepository.delete(entity);
+          return linkRepository.delete(entity)
+              .then(menuProjector.rebuildCategories(entity.getCategoryIds()))
+              .then(contentVersion.increment(entity.getCategoryIds()))
+              .then();
         });
   }
 
+  /**
+   * Creates a new image name. Every upload gets a new name, so the content behind an image name
+   * never changes and the image can be cached forever.
+   *
+   * @param linkId the link id
+   * @param infix the infix
+   * @return the image name
+   */
+  private static String createImageName(String linkId, String infix) {
+    return linkId + infix + UUID.randomUUID();
+  }
+
+  private void deleteReplacedImage(String objectName) {
+    if (StringUtils.hasText(objectName)) {
+      imageRepository.delete(MinioObjectId.from(objectName));
+      presignedUrlCache.evict(objectName);
+    }
+  }
+
+  private Mono<LinkEntity> onLinkChanged(
+      LinkEntity entity,
+      Set<String> oldCategoryIds) {
+
+    final Set<String> categoryIds = new LinkedHashSet<>(oldCategoryIds);
+    categoryIds.addAll(entity.getCategoryIds());
+    return menuProjector.rebuildCategories(categoryIds)
+        .then(contentVersion.increment(categoryIds))
+        .thenReturn(entity);
+  }
+
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.model.Link;
+import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryLinksEntity;
+import org.bremersee.linkman.repository.LinkEntity;
+import org.bremersee.linkman.repository.MenuProjectionEntity;
+import org.bremersee.linkman.repository.MenuProjectionLinkEntity;
+
+/**
+ * The menu assembler maps the entities of one menu request to menu entries. The language is
+ * resolved once per request and the lists are created with their final size, so that nothing
+ * else than the menu entries, the links and their lists is allocated per entry.
+ *
+ * @author Christian Bremer
+ */
+class MenuAssembler {
+
+  private final TwoLetterLanguageCode language;
+
+  private final Map<String, Long> versions;
+
+  private final ImageUrlResolver imageUrlResolver;
+
+  private final Comparator<LinkEntity> linkComparator;
+
+  /**
+   * Instantiates a new menu assembler.
+   *
+   * @param language the language
+   * @param versions the versions of the categories
+   * @param imageUrlResolver the image url resolver
+   */
+  MenuAssembler(
+      TwoLetterLanguageCode language,
+      Map<String, Long> versions,
+      ImageUrlResolver imageUrlResolver) {
+    this.language = language;
+    this.versions = versions;
+    this.imageUrlResolver = imageUrlResolver;
+    this.linkComparator = (o1, o2) -> o1.compareTo(o2, language);
+  }
+
+  /**
+   * Creates the menu entry of the given category. The links of the category are sorted in place.
+   *
+   * @param entity the category with it's links
+   * @return the menu entry or {@code null}, if the category has no links
+   */
+  MenuEntry toMenuEntry(CategoryLinksEntity entity) {
+    final List<LinkEntity> linkEntities = entity.getLinks();
+    if (linkEntities == null || linkEntities.isEmpty()) {
+      return null;
+    }
+    linkEntities.sort(linkComparator);
+    final List<Link> links = new ArrayList<>(linkEntities.size());
+    for (LinkEntity linkEntity : linkEntities) {
+      links.add(toLink(linkEntity));
+    }
+    final CategoryEntity category = entity.getCategory();
+    return new MenuEntry(
+        category.getId(),
+        versions.get(category.getId()),
+        category.getName(language),
+        category.isPublic(),
+        links);
+  }
+
+  /**
+   * Creates the menu entry of the given projection.
+   *
+   * @param projection the projection
+   * @return the menu entry
+   */
+  MenuEntry toMenuEntry(MenuProjectionEntity projection) {
+    final List<MenuProjectionLinkEntity> linkEntities = projection.getLinks();
+    final List<Link> links = new ArrayList<>(linkEntities.size());
+    for (MenuProjectionLinkEntity linkEntity : linkEntities) {
+      links.add(new Link(
+          linkEntity.getId(),
+          linkEntity.getHref(),
+          linkEntity.getBlank(),
+          linkEntity.getText(),
+          linkEntity.getDisplayText(),
+          linkEntity.getDescription(),
+          imageUrlResolver.getUrl(linkEntity.getCardImage()),
+          imageUrlResolver.getUrl(linkEntity.getMenuImage())));
+    }
+    return new MenuEntry(
+        projection.getCategoryId(),
+        versions.get(projection.getCategoryId()),
+        projection.getName(),
+        projection.isPub(),
+        links);
+  }
+
+  /**
+   * Creates the localized link.
+   *
+   * @param linkEntity the link entity
+   * @return the link
+   */
+  Link toLink(LinkEntity linkEntity) {
+    return new Link(
+        linkEntity.getId(),
+        linkEntity.getHref(),
+        linkEntity.getBlank(),
+        linkEntity.getText(language),
+        linkEntity.getDisplayText(),
+        linkEntity.getDescription(language),
+        imageUrlResolver.getUrl(linkEntity.getCardImage()),
+        imageUrlResolver.getUrl(linkEntity.getMenuImage()));
+  }
+
+  /**
+   * Gets the link comparator of the language.
+   *
+   * @return the link comparator
+   */
+  Comparator<LinkEntity> getLinkComparator() {
+    return linkComparator;
+  }
+
+}
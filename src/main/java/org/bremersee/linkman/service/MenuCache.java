@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.ImageUrlStrategy;
+import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.security.core.UserContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * The menu cache keeps the menu entries of a principal (user id, roles, groups and language). A
+ * cached menu is only returned, if it was built with the current {@link ContentVersion}, that is
+ * shared by all instances; the whole cache is cleared on every change of categories or links. If
+ * the image urls are presigned, a menu is not kept longer than the half of the minimum validity of
+ * the presigned urls.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class MenuCache {
+
+  private final boolean enabled;
+
+  private final ContentVersion contentVersion;
+
+  private final Cache<String, Snapshot> cache;
+
+  /**
+   * Instantiates a new menu cache.
+   *
+   * @param properties the properties
+   * @param contentVersion the content version
+   * @param presignedUrlCache the presigned url cache
+   * @param meterRegistry the meter registry
+   */
+  public MenuCache(
+      LinkmanProperties properties,
+      ContentVersion contentVersion,
+      PresignedUrlCache presignedUrlCache,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+
+    final LinkmanProperties.Cache cacheProperties = properties.getMenu().getCache();
+    final Duration timeToLive = getTimeToLive(
+        cacheProperties.getTimeToLive(),
+        properties.getImageUrlStrategy() == ImageUrlStrategy.PRESIGNED
+            ? presignedUrlCache.getMinimumUrlValidity()
+            : null);
+    this.enabled = cacheProperties.isEnabled();
+    this.contentVersion = contentVersion;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(cacheProperties.getMaximumSize())
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .build();
+    meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "menu"));
+    log.info("Menu cache (enabled = {}, maximum size = {}, time to live = {})",
+        enabled, cacheProperties.getMaximumSize(), timeToLive);
+  }
+
+  /**
+   * Gets the time to live of a cached menu. It is the configured time to live, but not longer
+   * than the half of the minimum validity of the presigned image urls.
+   *
+   * @param timeToLive the configured time to live
+   * @param minimumUrlValidity the minimum validity of the presigned urls (can be {@code null})
+   * @return the time to live
+   */
+  static Duration getTimeToLive(Duration timeToLive, Duration minimumUrlValidity) {
+    if (minimumUrlValidity == null) {
+      return timeToLive;
+    }
+    final Duration maxTimeToLive = minimumUrlValidity.dividedBy(2L);
+    return timeToLive.compareTo(maxTimeToLive) > 0 ? maxTimeToLive : timeToLive;
+  }
+
+  /**
+   * Gets the cached menu entries or loads them with the given loader.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @param loader the loader of the menu entries
+   * @return the menu entries
+   */
+  public Flux<MenuEntry> get(
+      UserContext userContext,
+      Locale language,
+      Supplier<Flux<MenuEntry>> loader) {
+
+    if (!enabled) {
+      return loader.get();
+    }
+    final String key = createKey(userContext, language);
+    return contentVersion.current().flatMapMany(version -> {
+      final Snapshot snapshot = cache.getIfPresent(key);
+      if (snapshot != null && snapshot.version == version) {
+        return Flux.fromIterable(snapshot.entries);
+      }
+      final List<MenuEntry> entries = new ArrayList<>();
+      return loader.get()
+          .doOnNext(entries::add)
+          .doOnComplete(() -> {
+            // A menu, that was loaded during a change, is not kept.
+            if (version == contentVersion.get()) {
+              cache.put(key, new Snapshot(version, entries));
+            }
+          });
+    });
+  }
+
+  /**
+   * Clears the cache, when categories or links were changed.
+   *
+   * @param event the event
+   */
+  @EventListener
+  public void onContentChanged(ContentChangedEvent event) {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Creates the cache key, which is a hash of the user id, the sorted roles, the sorted groups
+   * and the language.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @return the cache key
+   */
+  static String createKey(UserContext userContext, Locale language) {
+    final StringBuilder sb = new StringBuilder()
+        .append(TwoLetterLanguageCode.fromLocale(language, TwoLetterLanguageCode.EN))
+        .append('\u0000')
+        .append(Objects.toString(userContext.getUserId(), ""));
+    appendSorted(sb, userContext.getRoles());
+    appendSorted(sb, userContext.getGroups());
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+
+  private static void appendSorted(StringBuilder sb, Collection<String> values) {
+    sb.append('\u0000');
+    if (values != null) {
+      values.stream()
+          .filter(Objects::nonNull)
+          .collect(Collectors.toCollection(TreeSet::new))
+          .forEach(value -> sb.append('\u0001').append(value));
+    }
+  }
+
+  private static class Snapshot {
+
+    private final long version;
+
+    private final List<MenuEntry> entries;
+
+    private Snapshot(long version, List<MenuEntry> entries) {
+      this.version = version;
+      this.entries = entries;
+    }
+  }
+
+}
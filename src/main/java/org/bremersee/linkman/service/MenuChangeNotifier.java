@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.MenuChange;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.security.core.UserContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * The menu change notifier publishes every change of categories or links to all subscribers.
+ * The subscribers share one processor; every subscriber has a small buffer, that drops the
+ * oldest changes, if the subscriber is too slow. A subscriber only gets the ids of the changed
+ * categories, that it can read; guests get the changes without any ids.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class MenuChangeNotifier {
+
+  private final DirectProcessor<MenuChange> processor = DirectProcessor.create();
+
+  private final FluxSink<MenuChange> sink = processor.sink();
+
+  private final int bufferSize;
+
+  private final CategoryCatalog categoryCatalog;
+
+  /**
+   * Instantiates a new menu change notifier.
+   *
+   * @param properties the properties
+   * @param categoryCatalog the category catalog
+   */
+  public MenuChangeNotifier(LinkmanProperties properties, CategoryCatalog categoryCatalog) {
+    this.bufferSize = properties.getMenu().getChangeBufferSize();
+    this.categoryCatalog = categoryCatalog;
+  }
+
+  /**
+   * Publishes the change of categories or links.
+   *
+   * @param event the event
+   */
+  @EventListener
+  public void onContentChanged(ContentChangedEvent event) {
+    sink.next(new MenuChange(event.getVersion(), event.getCategoryIds()));
+  }
+
+  /**
+   * Gets the menu changes of the given user. The ids of the changed categories are reduced to
+   * the ones, that the user can read at the time of the change. A change is sent even if none of
+   * them is left, so that a client also notices, that a category is no longer readable.
+   *
+   * @param userContext the user context
+   * @return the menu changes
+   */
+  public Flux<MenuChange> getMenuChanges(UserContext userContext) {
+    if (!StringUtils.hasText(userContext.getUserId())) {
+      return getMenuChanges()
+          .map(change -> new MenuChange(change.getVersion(), null));
+    }
+    return getMenuChanges()
+        .concatMap(change -> change.getCategoryIds().isEmpty()
+            ? Mono.just(change)
+            : categoryCatalog
+                .findReadableCategories(
+                    userContext.getUserId(),
+                    userContext.getRoles(),
+                    userContext.getGroups(),
+                    null)
+                .map(CategoryEntity::getId)
+                .filter(change.getCategoryIds()::contains)
+                .collectList()
+                .map(categoryIds -> new MenuChange(change.getVersion(), categoryIds)));
+  }
+
+  /**
+   * Gets all menu changes.
+   *
+   * @return the menu changes
+   */
+  Flux<MenuChange> getMenuChanges() {
+    return processor.onBackpressureBuffer(
+        bufferSize,
+        change -> log.debug("Menu change dropped: {}", change),
+        BufferOverflowStrategy.DROP_OLDEST);
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.QueryStrategy;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryRepository;
+import org.bremersee.linkman.repository.LinkEntity;
+import org.bremersee.linkman.repository.LinkRepository;
+import org.bremersee.linkman.repository.MenuProjectionEntity;
+import org.bremersee.linkman.repository.MenuProjectionLinkEntity;
+import org.bremersee.linkman.repository.MenuProjectionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The menu projector maintains the menu projections (one document per category and available
+ * language with the already localized and sorted links). It must be called on every change of
+ * a category or a link. The projections are only read with the query strategy
+ * {@link QueryStrategy#PROJECTION}, with any other strategy nothing is done; they are rebuilt on
+ * start up, when the strategy is switched to projection.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class MenuProjector {
+
+  private final LinkmanProperties properties;
+
+  private final boolean enabled;
+
+  private final CategoryRepository categoryRepository;
+
+  private final LinkRepository linkRepository;
+
+  private final MenuProjectionRepository menuProjectionRepository;
+
+  /**
+   * Instantiates a new menu projector.
+   *
+   * @param properties the properties
+   * @param categoryRepository the category repository
+   * @param linkRepository the link repository
+   * @param menuProjectionRepository the menu projection repository
+   */
+  public MenuProjector(
+      LinkmanProperties properties,
+      CategoryRepository categoryRepository,
+      LinkRepository linkRepository,
+      MenuProjectionRepository menuProjectionRepository) {
+    this.properties = properties;
+    this.enabled = properties.getMenu().getQueryStrategy() == QueryStrategy.PROJECTION;
+    this.categoryRepository = categoryRepository;
+    this.linkRepository = linkRepository;
+    this.menuProjectionRepository = menuProjectionRepository;
+  }
+
+  /**
+   * Rebuilds all menu projections on start up.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+    rebuildAll().block();
+    log.info("Menu projections rebuilt.");
+  }
+
+  /**
+   * Rebuilds the projections of all categories and removes orphaned projections.
+   *
+   * @return void
+   */
+  public Mono<Void> rebuildAll() {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return categoryRepository.findAll()
+        .concatMap(category -> rebuildCategory(category).thenReturn(category.getId()))
+        .collectList()
+        .flatMap(categoryIds -> menuProjectionRepository
+            .deleteOrphans(categoryIds, properties.getAvailableLanguages()));
+  }
+
+  /**
+   * Rebuilds the projections of the given categories. The projections of categories that do
+   * not exist anymore are removed.
+   *
+   * @param categoryIds the category ids
+   * @return void
+   */
+  public Mono<Void> rebuildCategories(Collection<String> categoryIds) {
+    if (!enabled || categoryIds == null || categoryIds.isEmpty()) {
+      return Mono.empty();
+    }
+    return Flux.fromIterable(new LinkedHashSet<>(categoryIds))
+        .concatMap(this::rebuildCategory)
+        .then();
+  }
+
+  /**
+   * Rebuilds the projections of the given category. If the category does not exist anymore,
+   * it's projections are removed.
+   *
+   * @param categoryId the category id
+   * @return void
+   */
+  public Mono<Void> rebuildCategory(String categoryId) {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return categoryRepository.findById(categoryId)
+        .flatMap(category -> rebuildCategory(category).thenReturn(true))
+        .switchIfEmpty(Mono.defer(() -> deleteCategory(categoryId).thenReturn(false)))
+        .then();
+  }
+
+  /**
+   * Rebuilds the projections of the given category.
+   *
+   * @param category the category
+   * @return void
+   */
+  public Mono<Void> rebuildCategory(CategoryEntity category) {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return linkRepository.findByCategoryId(category.getId())
+        .collectList()
+        .map(links -> properties.getAvailableLanguages().stream()
+            .map(language -> project(category, links, language))
+            .collect(Collectors.toList()))
+        .flatMap(projections -> menuProjectionRepository.saveAll(projections).then());
+  }
+
+  /**
+   * Deletes the projections of the given category.
+   *
+   * @param categoryId the category id
+   * @return void
+   */
+  public Mono<Void> deleteCategory(String categoryId) {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return menuProjectionRepository.deleteByCategoryId(categoryId).then();
+  }
+
+  private static MenuProjectionEntity project(
+      CategoryEntity category,
+      List<LinkEntity> links,
+      TwoLetterLanguageCode language) {
+
+    final Locale locale = language.toLocale();
+    final MenuProjectionEntity projection = new MenuProjectionEntity();
+    projection.setId(MenuProjectionEntity.createId(category.getId(), language));
+    projection.setCategoryId(category.getId());
+    projection.setLanguage(language);
+    projection.setAcl(category.getAcl());
+    projection.setPub(category.isPublic());
+    projection.setOrder(category.getOrder());
+    projection.setName(category.getName(locale));
+    projection.setSortName(category.getSortKey(locale));
+    projection.setLinks(links.stream()
+        .sorted((o1, o2) -> o1.compareTo(o2, locale))
+        .map(link -> project(link, locale))
+        .collect(Collectors.toList()));
+    return projection;
+  }
+
+  private static MenuProjectionLinkEntity project(LinkEntity link, Locale locale) {
+    final MenuProjectionLinkEntity projection = new MenuProjectionLinkEntity();
+    projection.setId(link.getId());
+    projection.setHref(link.getHref());
+    projection.setBlank(link.getBlank());
+    projection.setText(link.getText(locale));
+    projection.setDisplayText(link.getDisplayText());
+    projection.setDescription(link.getDescription(locale));
+    projection.setCardImage(link.getCardImage());
+    projection.setMenuImage(link.getMenuImage());
+    return projection;
+  }
+
+}
@@ -16,10 +16,15 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.Collection;
 import java.util.Locale;
+import org.bremersee.linkman.model.Link;
+import org.bremersee.linkman.model.MenuCategory;
+import org.bremersee.linkman.model.MenuDelta;
 import org.bremersee.linkman.model.MenuEntry;
 import org.bremersee.security.core.UserContext;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The menu service.
@@ -39,4 +44,51 @@ public interface MenuService {
       UserContext userContext,
       Locale language);
 
+  /**
+   * Gets the menu delta. It contains the menu entries of the categories, that were changed after
+   * the given version, and the ids of the categories, that were removed from the menu since then.
+   *
+   * <p>The readable categories also change with the roles and groups of the user, without a
+   * change of their content. If the client sends the ids of the categories it already has, the
+   * delta contains the entries of all other readable categories, too, and the known categories,
+   * that are not readable anymore, are removed.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @param since the version of the menu, the client already has
+   * @param knownCategoryIds the ids of the categories, the client already has (can be
+   *     {@code null})
+   * @return the menu delta
+   */
+  Mono<MenuDelta> getMenuDelta(
+      UserContext userContext,
+      Locale language,
+      long since,
+      Collection<String> knownCategoryIds);
+
+  /**
+   * Gets the categories of the menu without their links. The categories are the same as the
+   * categories of the menu entries.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @return the menu categories
+   */
+  Flux<MenuCategory> getMenuCategories(
+      UserContext userContext,
+      Locale language);
+
+  /**
+   * Gets the links of a category of the menu.
+   *
+   * @param userContext the user context
+   * @param language the language
+   * @param categoryId the category id
+   * @return the links; if the category does not exist or is not readable, a not found error
+   */
+  Flux<Link> getMenuLinks(
+      UserContext userContext,
+      Locale language,
+      String categoryId);
+
 }
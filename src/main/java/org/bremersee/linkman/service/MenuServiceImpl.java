@@ -16,21 +16,39 @@
 
 package org.bremersee.linkman.service;
 
-import io.minio.http.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
-import org.bremersee.data.minio.MinioObjectId;
-import org.bremersee.data.minio.MinioRepository;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.exception.ServiceException;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.QueryStrategy;
 import org.bremersee.linkman.model.Link;
+import org.bremersee.linkman.model.MenuCategory;
+import org.bremersee.linkman.model.MenuDelta;
 import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryLinksEntity;
 import org.bremersee.linkman.repository.CategoryRepository;
+import org.bremersee.linkman.repository.CategoryVersionEntity;
+import org.bremersee.linkman.repository.CategoryVersionRepository;
+import org.bremersee.linkman.repository.LinkEntity;
 import org.bremersee.linkman.repository.LinkRepository;
+import org.bremersee.linkman.repository.MenuProjectionRepository;
+import org.bremersee.linkman.repository.SortKeys;
 import org.bremersee.security.core.UserContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
-import reactor.util.function.Tuples;
+import reactor.core.publisher.Mono;
 
 /**
  * The menu service implementation.
@@ -40,27 +58,57 @@ import reactor.util.function.Tuples;
 @Component
 public class MenuServiceImpl implements MenuService {
 
+  private final LinkmanProperties properties;
+
   private final CategoryRepository categoryRepository;
 
+  private final CategoryCatalog categoryCatalog;
+
   private final LinkRepository linkRepository;
 
-  private final MinioRepository imageRepository;
+  private final MenuProjectionRepository menuProjectionRepository;
+
+  private final CategoryVersionRepository categoryVersionRepository;
+
+  private final ContentVersion contentVersion;
+
+  private final ImageUrlResolver imageUrlResolver;
+
+  private final MenuCache menuCache;
 
   /**
    * Instantiates a new menu service.
    *
+   * @param properties the properties
    * @param categoryRepository the category repository
+   * @param categoryCatalog the category catalog
    * @param linkRepository the link repository
-   * @param imageRepository the image repository
+   * @param menuProjectionRepository the menu projection repository
+   * @param categoryVersionRepository the category version repository
+   * @param contentVersion the content version
+   * @param imageUrlResolver the image url resolver
+   * @param menuCache the menu cache
    */
   public MenuServiceImpl(
+      LinkmanProperties properties,
       CategoryRepository categoryRepository,
+      CategoryCatalog categoryCatalog,
       LinkRepository linkRepository,
-      MinioRepository imageRepository) {
+      MenuProjectionRepository menuProjectionRepository,
+      CategoryVersionRepository categoryVersionRepository,
+      ContentVersion contentVersion,
+      ImageUrlResolver imageUrlResolver,
+      MenuCache menuCache) {
 
+    this.properties = properties;
     this.categoryRepository = categoryRepository;
+    this.categoryCatalog = categoryCatalog;
     this.linkRepository = linkRepository;
-    this.imageRepository = imageRepository;
+    this.menuProjectionRepository = menuProjectionRepository;
+    this.categoryVersionRepository = categoryVersionRepository;
+    this.contentVersion = contentVersion;
+    this.imageUrlResolver = imageUrlResolver;
+    this.menuCache = menuCache;
   }
 
   @Override
@@ -68,40 +116,217 @@ public class MenuServiceImpl implements MenuService {
       UserContext userContext,
       Locale language) {
 
-    return categoryRepository
+    return menuCache.get(userContext, language, () -> buildMenuEntries(userContext, language));
+  }
+
+  @Override
+  public Mono<MenuDelta> getMenuDelta(
+      UserContext userContext,
+      Locale language,
+      long since,
+      Collection<String> knownCategoryIds) {
+
+    // The version is taken first, so that a change, that happens while the delta is built, is
+    // delivered again with the next delta.
+    return contentVersion.current()
+        .flatMap(version -> getMenuEntries(userContext, language)
+            .collectList()
+            .zipWith(categoryVersionRepository.findByVersionGreaterThan(since)
+                .map(CategoryVersionEntity::getId)
+                .collect(Collectors.toSet()))
+            .map(tuple -> toMenuDelta(version, tuple.getT1(), tuple.getT2(), knownCategoryIds)));
+  }
+
+  @Override
+  public Flux<MenuCategory> getMenuCategories(
+      UserContext userContext,
+      Locale language) {
+
+    final TwoLetterLanguageCode languageCode = TwoLetterLanguageCode
+        .fromLocale(language, TwoLetterLanguageCode.EN);
+    final TwoLetterLanguageCode sortLanguage = getSortLanguage(languageCode);
+    return categoryCatalog
         .findReadableCategories(
             userContext.getUserId(),
             userContext.getRoles(),
-            userContext.getGroups())
-        .flatMap(category -> linkRepository.findByCategoryId(category.getId())
-            .collectSortedList((o1, o2) -> o1.compareTo(o2, language))
-            .map(links -> Tuples.of(category, links)))
-        .sort((o1, o2) -> o1.getT1().compareTo(o2.getT1(), language))
-        .map(tuple -> MenuEntry.builder()
-            .category(tuple.getT1().getName(language))
-            .pub(tuple.getT1().isPublic())
-            .links(tuple.getT2().stream()
-                .map(linkEntity -> Link.builder()
-                    .id(linkEntity.getId())
-                    .href(linkEntity.getHref())
-                    .blank(linkEntity.getBlank())
-                    .text(linkEntity.getText(language))
-                    .displayText(linkEntity.getDisplayText())
-                    .description(linkEntity.getDescription(language))
-                    .cardImageUrl(getPresignedUrl(linkEntity.getCardImage()))
-                    .menuImageUrl(getPresignedUrl(linkEntity.getMenuImage()))
-                    .build())
+            userContext.getGroups(),
+            sortLanguage)
+        .collectList()
+        .flatMapMany(categories -> linkRepository
+            .countByCategoryIds(categories.stream()
+                .map(CategoryEntity::getId)
                 .collect(Collectors.toList()))
-            .build())
-        .filter(menuEntry -> menuEntry.getLinks() != null && !menuEntry.getLinks().isEmpty());
+            .flatMapIterable(counts -> {
+              if (sortLanguage == null) {
+                categories.sort((o1, o2) -> o1.compareTo(o2, languageCode));
+              }
+              // Like the menu entries, categories without links are not returned.
+              final List<MenuCategory> menuCategories = new ArrayList<>(counts.size());
+              for (CategoryEntity category : categories) {
+                final Long count = counts.get(category.getId());
+                if (count != null && count > 0L) {
+                  menuCategories.add(new MenuCategory(
+                      category.getId(),
+                      category.getName(languageCode),
+                      category.isPublic(),
+                      count));
+                }
+              }
+              return menuCategories;
+            }));
+  }
+
+  @Override
+  public Flux<Link> getMenuLinks(
+      UserContext userContext,
+      Locale language,
+      String categoryId) {
+
+    final TwoLetterLanguageCode languageCode = TwoLetterLanguageCode
+        .fromLocale(language, TwoLetterLanguageCode.EN);
+    final TwoLetterLanguageCode sortLanguage = getSortLanguage(languageCode);
+    final MenuAssembler assembler = new MenuAssembler(
+        languageCode,
+        Collections.emptyMap(),
+        imageUrlResolver);
+    return categoryCatalog
+        .findReadableCategories(
+            userContext.getUserId(),
+            userContext.getRoles(),
+            userContext.getGroups(),
+            sortLanguage)
+        .filter(category -> category.getId().equals(categoryId))
+        .next()
+        .switchIfEmpty(Mono.error(() -> ServiceException.notFound("Category", categoryId)))
+        .flatMapMany(category -> {
+          final Flux<LinkEntity> links = linkRepository
+              .findByCategoryId(category.getId(), getLinkSort(sortLanguage));
+          return sortLanguage != null
+              ? links
+              : links.sort(assembler.getLinkComparator());
+        })
+        .map(assembler::toLink);
+  }
+
+  /**
+   * Creates the menu delta. The entries of the changed categories and of the categories, that
+   * the client doesn't know, are returned. The changed and the known categories, that are not
+   * readable anymore, are removed.
+   *
+   * @param version the current version
+   * @param entries all menu entries
+   * @param changedIds the ids of the categories, that were changed since the client's version
+   * @param knownCategoryIds the ids of the categories, the client has (can be {@code null})
+   * @return the menu delta
+   */
+  static MenuDelta toMenuDelta(
+      long version,
+      List<MenuEntry> entries,
+      Set<String> changedIds,
+      Collection<String> knownCategoryIds) {
+
+    final List<String> categoryIds = entries.stream()
+        .map(MenuEntry::getCategoryId)
+        .collect(Collectors.toList());
+    final Set<String> knownIds = knownCategoryIds != null
+        ? new HashSet<>(knownCategoryIds)
+        : null;
+    final Set<String> removedIds = new TreeSet<>(changedIds);
+    if (knownIds != null) {
+      removedIds.addAll(knownIds);
+    }
+    removedIds.removeAll(categoryIds);
+    return MenuDelta.builder()
+        .version(version)
+        .categoryIds(categoryIds)
+        .entries(entries.stream()
+            .filter(entry -> changedIds.contains(entry.getCategoryId())
+                || (knownIds != null && !knownIds.contains(entry.getCategoryId())))
+            .collect(Collectors.toList()))
+        .removedCategoryIds(new ArrayList<>(removedIds))
+        .build();
+  }
+
+  private Flux<MenuEntry> buildMenuEntries(UserContext userContext, Locale language) {
+    return categoryVersionRepository.findAll()
+        .collectMap(CategoryVersionEntity::getId, CategoryVersionEntity::getVersion)
+        .flatMapMany(versions -> buildMenuEntries(userContext, language, versions));
+  }
+
+  private Flux<MenuEntry> buildMenuEntries(
+      UserContext userContext,
+      Locale language,
+      Map<String, Long> versions) {
+
+    final TwoLetterLanguageCode languageCode = TwoLetterLanguageCode
+        .fromLocale(language, TwoLetterLanguageCode.EN);
+    final MenuAssembler assembler = new MenuAssembler(languageCode, versions, imageUrlResolver);
+    if (properties.getMenu().getQueryStrategy() == QueryStrategy.PROJECTION
+        && properties.getAvailableLanguages().contains(languageCode)) {
+      return menuProjectionRepository
+          .findReadableMenuProjections(
+              languageCode,
+              userContext.getUserId(),
+              userContext.getRoles(),
+              userContext.getGroups())
+          .map(assembler::toMenuEntry);
+    }
+    // The categories are sorted by the database with the stored sort keys of an available
+    // language. Otherwise only categories with the same order must be sorted in memory.
+    final TwoLetterLanguageCode sortLanguage = getSortLanguage(languageCode);
+    final Flux<CategoryLinksEntity> categories = findReadableCategoriesWithLinks(
+        userContext, sortLanguage);
+    return (sortLanguage != null
+        ? categories
+        : categories
+            .bufferUntilChanged(entity -> entity.getCategory().getOrder())
+            .flatMapIterable(entities -> {
+              entities.sort((o1, o2) -> o1.getCategory()
+                  .compareTo(o2.getCategory(), languageCode));
+              return entities;
+            }))
+        .handle((entity, sink) -> {
+          // Categories without links are not part of the menu.
+          final MenuEntry menuEntry = assembler.toMenuEntry(entity);
+          if (menuEntry != null) {
+            sink.next(menuEntry);
+          }
+        });
+  }
+
+  private Flux<CategoryLinksEntity> findReadableCategoriesWithLinks(
+      UserContext userContext,
+      TwoLetterLanguageCode sortLanguage) {
+
+    if (properties.getMenu().getQueryStrategy() == QueryStrategy.PER_CATEGORY) {
+      final Sort linkSort = getLinkSort(sortLanguage);
+      return categoryCatalog
+          .findReadableCategories(
+              userContext.getUserId(),
+              userContext.getRoles(),
+              userContext.getGroups(),
+              sortLanguage)
+          .flatMapSequential(category -> linkRepository
+              .findByCategoryId(category.getId(), linkSort)
+              .collectList()
+              .map(links -> new CategoryLinksEntity(category, links)));
+    }
+    return categoryRepository.findReadableCategoriesWithLinks(
+        userContext.getUserId(),
+        userContext.getRoles(),
+        userContext.getGroups(),
+        sortLanguage);
+  }
+
+  private TwoLetterLanguageCode getSortLanguage(TwoLetterLanguageCode language) {
+    // Sort keys are only stored for the available languages, otherwise sorting is done in memory.
+    return properties.getAvailableLanguages().contains(language) ? language : null;
   }
 
-  private String getPresignedUrl(String objectName) {
-    return Optional.ofNullable(objectName)
-        .filter(StringUtils::hasText)
-        .map(MinioObjectId::from)
-        .map(id -> imageRepository.getPresignedObjectUrl(id, Method.GET))
-        .orElse(null);
+  private static Sort getLinkSort(TwoLetterLanguageCode sortLanguage) {
+    return sortLanguage != null
+        ? Sort.by(Order.asc("order"), Order.asc(SortKeys.field(sortLanguage)))
+        : null;
   }
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.minio.http.Method;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.data.minio.MinioObjectId;
+import org.bremersee.data.minio.MinioRepository;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * The presigned url cache keeps the signed image urls by object name. A signed url is reused
+ * until the configured fraction of the presigned object url duration has elapsed, so the image
+ * urls are stable and can be cached by browsers.
+ *
+ * @author Christian Bremer
+ */
+@Component
+@Slf4j
+public class PresignedUrlCache {
+
+  private final boolean enabled;
+
+  private final MinioRepository imageRepository;
+
+  private final Cache<String, String> cache;
+
+  private final Duration minimumUrlValidity;
+
+  /**
+   * Instantiates a new presigned url cache.
+   *
+   * @param properties the properties
+   * @param imageRepository the image repository
+   * @param meterRegistry the meter registry
+   */
+  public PresignedUrlCache(
+      LinkmanProperties properties,
+      MinioRepository imageRepository,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+
+    final LinkmanProperties.UrlCache cacheProperties = properties.getPresignedObjectUrlCache();
+    Assert.isTrue(
+        cacheProperties.getReuseFraction() > 0. && cacheProperties.getReuseFraction() < 1.,
+        "Reuse fraction of presigned object urls must be greater than 0 and less than 1.");
+    final Duration timeToLive = Duration.ofMillis(Math.round(
+        properties.getPresignedObjectUrlDuration().toMillis()
+            * cacheProperties.getReuseFraction()));
+    this.enabled = cacheProperties.isEnabled();
+    this.minimumUrlValidity = enabled
+        ? properties.getPresignedObjectUrlDuration().minus(timeToLive)
+        : properties.getPresignedObjectUrlDuration();
+    this.imageRepository = imageRepository;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(cacheProperties.getMaximumSize())
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .build();
+    meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics
+        .monitor(registry, cache, "presignedUrls"));
+    log.info("Presigned url cache (enabled = {}, maximum size = {}, time to live = {})",
+        enabled, cacheProperties.getMaximumSize(), timeToLive);
+  }
+
+  /**
+   * Gets the presigned url of the given object.
+   *
+   * @param objectName the object name
+   * @return the presigned url or {@code null}, if the object name is empty
+   */
+  public String getUrl(String objectName) {
+    if (!StringUtils.hasText(objectName)) {
+      return null;
+    }
+    if (!enabled) {
+      return sign(objectName);
+    }
+    return cache.get(objectName, this::sign);
+  }
+
+  /**
+   * Gets the minimum validity of a returned url. A cached url is valid for at least the rest of
+   * the presigned object url duration.
+   *
+   * @return the minimum validity of a returned url
+   */
+  public Duration getMinimumUrlValidity() {
+    return minimumUrlValidity;
+  }
+
+  /**
+   * Evicts the presigned url of the given object, when the object was replaced or deleted.
+   *
+   * @param objectName the object name
+   */
+  public void evict(String objectName) {
+    if (StringUtils.hasText(objectName)) {
+      cache.invalidate(objectName);
+    }
+  }
+
+  private String sign(String objectName) {
+    return imageRepository.getPresignedObjectUrl(MinioObjectId.from(objectName), Method.GET);
+  }
+
+}
@@ -16,8 +16,11 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.Collection;
+import java.util.List;
 import org.bremersee.linkman.model.SelectOption;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The role service.
@@ -33,4 +36,12 @@ public interface RoleService {
    */
   Flux<SelectOption> getAllRoles();
 
+  /**
+   * Validate roles.
+   *
+   * @param roles the roles
+   * @return the existing roles
+   */
+  Mono<List<String>> validateRoles(Collection<String> roles);
+
 }
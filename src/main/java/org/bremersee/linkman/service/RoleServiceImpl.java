@@ -16,6 +16,8 @@
 
 package org.bremersee.linkman.service;
 
+import java.util.Collection;
+import java.util.List;
 import org.bremersee.linkman.config.LinkmanProperties;
 import org.bremersee.linkman.model.RoleRepresentation;
 import org.bremersee.linkman.model.SelectOption;
@@ -23,6 +25,7 @@ import org.bremersee.security.authentication.AuthProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * The role service implementation.
@@ -38,6 +41,8 @@ public class RoleServiceImpl implements RoleService {
 
   private final KeycloakClientApi keycloakClient;
 
+  private final SelectOptionCache cache;
+
   /**
    * Instantiates a new role service.
    *
@@ -52,10 +57,23 @@ public class RoleServiceImpl implements RoleService {
     this.authProperties = authProperties;
     this.linkmanProperties = linkmanProperties;
     this.keycloakClient = keycloakClient;
+    this.cache = new SelectOptionCache(
+        "roles",
+        linkmanProperties.getKeycloakCache(),
+        this::loadAllRoles);
   }
 
   @Override
   public Flux<SelectOption> getAllRoles() {
+    return cache.getAll();
+  }
+
+  @Override
+  public Mono<List<String>> validateRoles(Collection<String> roles) {
+    return cache.filterExisting(roles);
+  }
+
+  private Flux<SelectOption> loadAllRoles() {
     return keycloakClient.getAllRoles(linkmanProperties.getKeycloakRealm())
         .filter(this::isValidRole)
         .map(role -> new SelectOption(getValue(role), getDisplayValue(role)));
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.SelectOption;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The select option cache keeps all options of a catalog like the roles or groups of keycloak.
+ * After the refresh interval the cached options are returned and reloaded in the background
+ * (refresh ahead). After the expiration the options are reloaded before they are returned; if
+ * this reload fails, the stale options are returned. Concurrent loads are coalesced.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class SelectOptionCache {
+
+  private final String name;
+
+  private final boolean enabled;
+
+  private final long refreshAfterMillis;
+
+  private final long expireAfterMillis;
+
+  private final Supplier<Flux<SelectOption>> loader;
+
+  private final AtomicReference<Options> options = new AtomicReference<>();
+
+  private final AtomicReference<Mono<Options>> loading = new AtomicReference<>();
+
+  /**
+   * Instantiates a new select option cache.
+   *
+   * @param name the name of the catalog
+   * @param properties the cache properties
+   * @param loader the loader of all options
+   */
+  public SelectOptionCache(
+      String name,
+      LinkmanProperties.OptionCache properties,
+      Supplier<Flux<SelectOption>> loader) {
+    this.name = name;
+    this.enabled = properties.isEnabled();
+    this.refreshAfterMillis = properties.getRefreshAfter().toMillis();
+    this.expireAfterMillis = properties.getRefreshAfter()
+        .plus(properties.getExpireAfter())
+        .toMillis();
+    this.loader = loader;
+    log.info("Select option cache {} (enabled = {}, refresh after = {}, expire after = {})",
+        name, enabled, properties.getRefreshAfter(), properties.getExpireAfter());
+  }
+
+  /**
+   * Gets all options.
+   *
+   * @return all options
+   */
+  public Flux<SelectOption> getAll() {
+    return get().flatMapIterable(current -> current.options);
+  }
+
+  /**
+   * Gets all options as list. The same list instance is returned until the options are
+   * reloaded, so that views of the options can be reused while they are unchanged.
+   *
+   * @return all options
+   */
+  public Mono<List<SelectOption>> getList() {
+    return get().map(current -> current.options);
+  }
+
+  /**
+   * Returns the given values, that exist in the catalog, in their given order.
+   *
+   * @param values the values
+   * @return the existing values
+   */
+  public Mono<List<String>> filterExisting(Collection<String> values) {
+    if (values == null || values.isEmpty()) {
+      return Mono.just(Collections.emptyList());
+    }
+    return get().map(current -> values.stream()
+        .filter(current.values::contains)
+        .distinct()
+        .collect(Collectors.toList()));
+  }
+
+  private Mono<Options> get() {
+    if (!enabled) {
+      return loader.get().collectList().map(Options::new);
+    }
+    final Options current = options.get();
+    if (current == null) {
+      return load();
+    }
+    final long age = System.currentTimeMillis() - current.loadedAt;
+    if (age < refreshAfterMillis) {
+      return Mono.just(current);
+    }
+    if (age < expireAfterMillis) {
+      load().subscribe(
+          loaded -> log.debug("Select option cache {} refreshed.", name),
+          error -> log.warn("Refreshing select option cache {} failed.", name, error));
+      return Mono.just(current);
+    }
+    return load().onErrorResume(error -> {
+      log.warn("Loading select option cache {} failed, returning stale options.", name, error);
+      return Mono.just(current);
+    });
+  }
+
+  private Mono<Options> load() {
+    return CoalescedLoads.coalesce(loading, () -> loader.get()
+        .collectList()
+        .map(Options::new)
+        .doOnNext(options::set));
+  }
+
+  private static class Options {
+
+    private final List<SelectOption> options;
+
+    private final Set<String> values;
+
+    private final long loadedAt = System.currentTimeMillis();
+
+    private Options(List<SelectOption> options) {
+      this.options = List.copyOf(options);
+      this.values = new HashSet<>(options.size() * 2);
+      for (SelectOption option : options) {
+        this.values.add(option.getValue());
+      }
+    }
+  }
+
+}
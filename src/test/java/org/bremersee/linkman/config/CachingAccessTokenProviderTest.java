@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The caching access token provider test.
+ *
+ * @author Christian Bremer
+ */
+class CachingAccessTokenProviderTest {
+
+  /**
+   * A valid token is cached and concurrent retrievals are coalesced.
+   */
+  @Test
+  void getAccessToken() {
+    String token = token(300L);
+    AtomicInteger calls = new AtomicInteger();
+    CachingAccessTokenProvider provider = new CachingAccessTokenProvider(
+        () -> Mono.fromSupplier(() -> {
+          calls.incrementAndGet();
+          return token;
+        }).delayElement(Duration.ofMillis(50L)),
+        Duration.ofSeconds(30L));
+
+    StepVerifier.create(Mono.zip(provider.getAccessToken(), provider.getAccessToken()))
+        .assertNext(tuple -> {
+          assertEquals(token, tuple.getT1());
+          assertEquals(token, tuple.getT2());
+        })
+        .verifyComplete();
+    StepVerifier.create(provider.getAccessToken())
+        .expectNext(token)
+        .verifyComplete();
+    assertEquals(1, calls.get());
+  }
+
+  /**
+   * A token within the refresh interval is returned and refreshed in the background.
+   */
+  @Test
+  void getAccessTokenRefreshesAhead() {
+    AtomicInteger calls = new AtomicInteger();
+    CachingAccessTokenProvider provider = new CachingAccessTokenProvider(
+        () -> Mono.fromSupplier(() -> calls.incrementAndGet() == 1 ? token(20L) : token(300L)),
+        Duration.ofSeconds(30L));
+
+    String first = provider.getAccessToken().block();
+    StepVerifier.create(provider.getAccessToken())
+        .expectNext(first)
+        .verifyComplete();
+    assertEquals(2, calls.get());
+    StepVerifier.create(provider.getAccessToken())
+        .expectNextMatches(token -> !token.equals(first))
+        .verifyComplete();
+    assertEquals(2, calls.get());
+  }
+
+  /**
+   * Expired tokens and tokens without expiration are not used again.
+   */
+  @Test
+  void getAccessTokenRetrievesNewToken() {
+    AtomicInteger calls = new AtomicInteger();
+    CachingAccessTokenProvider provider = new CachingAccessTokenProvider(
+        () -> Mono.fromSupplier(() -> calls.incrementAndGet() == 1 ? token(-10L) : "opaque"),
+        Duration.ofSeconds(30L));
+
+    provider.getAccessToken().block();
+    provider.getAccessToken().block();
+    provider.getAccessToken().block();
+    assertEquals(3, calls.get());
+  }
+
+  /**
+   * Gets expires at.
+   */
+  @Test
+  void getExpiresAt() {
+    assertEquals(0L, CachingAccessTokenProvider.getExpiresAt(null));
+    assertEquals(0L, CachingAccessTokenProvider.getExpiresAt("opaque"));
+    assertEquals(0L, CachingAccessTokenProvider.getExpiresAt("a.b!.c"));
+    assertEquals(
+        1600000000000L - 5000L,
+        CachingAccessTokenProvider.getExpiresAt(jwt("{\"exp\":1600000000}")));
+  }
+
+  private static String token(long secondsToLive) {
+    long exp = System.currentTimeMillis() / 1000L + secondsToLive;
+    return jwt("{\"exp\":" + exp + ",\"jti\":\"" + System.nanoTime() + "\"}");
+  }
+
+  private static String jwt(String claims) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+        + "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8))
+        + ".signature";
+  }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bremersee.linkman.config.ResilienceFilter.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The resilience filter test.
+ *
+ * @author Christian Bremer
+ */
+class ResilienceFilterTest {
+
+  private static final ClientRequest REQUEST = ClientRequest
+      .create(HttpMethod.GET, URI.create("http://localhost/test"))
+      .build();
+
+  /**
+   * The circuit breaker opens after the failure threshold and closes after a successful trial
+   * call.
+   */
+  @Test
+  void circuitBreaker() throws InterruptedException {
+    LinkmanProperties.Resilience properties = new LinkmanProperties.Resilience();
+    properties.setFailureThreshold(2);
+    properties.setOpenDuration(Duration.ofMillis(100L));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ResilienceFilter filter = new ResilienceFilter("test", properties, provider(meterRegistry));
+    AtomicInteger calls = new AtomicInteger();
+    ExchangeFunction failing = request -> {
+      calls.incrementAndGet();
+      return Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build());
+    };
+
+    StepVerifier.create(filter.filter(REQUEST, failing)).expectNextCount(1).verifyComplete();
+    assertEquals(State.CLOSED, filter.getState());
+    StepVerifier.create(filter.filter(REQUEST, failing)).expectNextCount(1).verifyComplete();
+    assertEquals(State.OPEN, filter.getState());
+
+    StepVerifier.create(filter.filter(REQUEST, failing))
+        .expectError(ResponseStatusException.class)
+        .verify();
+    assertEquals(2, calls.get());
+    assertEquals(1.0, meterRegistry.get("linkman.client.calls.rejected")
+        .tag("reason", "circuit_open")
+        .counter()
+        .count());
+    assertEquals(1.0, meterRegistry.get("linkman.client.circuit.state").gauge().value());
+
+    Thread.sleep(150L);
+    ExchangeFunction succeeding = request -> Mono
+        .just(ClientResponse.create(HttpStatus.OK).build());
+    StepVerifier.create(filter.filter(REQUEST, succeeding)).expectNextCount(1).verifyComplete();
+    assertEquals(State.CLOSED, filter.getState());
+    assertEquals(1L, meterRegistry.get("linkman.client.calls")
+        .tag("outcome", "success")
+        .timer()
+        .count());
+  }
+
+  /**
+   * Slow calls time out and count as failures.
+   */
+  @Test
+  void timeout() {
+    LinkmanProperties.Resilience properties = new LinkmanProperties.Resilience();
+    properties.setTimeout(Duration.ofMillis(50L));
+    properties.setFailureThreshold(1);
+    ResilienceFilter filter = new ResilienceFilter(
+        "test",
+        properties,
+        provider(new SimpleMeterRegistry()));
+
+    StepVerifier.create(filter.filter(REQUEST, request -> Mono.never()))
+        .expectError(TimeoutException.class)
+        .verify();
+    assertEquals(State.OPEN, filter.getState());
+  }
+
+  /**
+   * Calls above the maximum concurrent calls are rejected.
+   */
+  @Test
+  void bulkhead() {
+    LinkmanProperties.Resilience properties = new LinkmanProperties.Resilience();
+    properties.setMaxConcurrentCalls(1);
+    ResilienceFilter filter = new ResilienceFilter(
+        "test",
+        properties,
+        provider(new SimpleMeterRegistry()));
+    ExchangeFunction slow = request -> Mono
+        .just(ClientResponse.create(HttpStatus.OK).build())
+        .delayElement(Duration.ofMillis(100L));
+
+    StepVerifier.create(Mono.zip(
+        filter.filter(REQUEST, slow).map(response -> "ok"),
+        filter.filter(REQUEST, slow).map(response -> "ok")
+            .onErrorResume(ResponseStatusException.class, error -> Mono.just("rejected"))))
+        .assertNext(tuple -> {
+          assertEquals("ok", tuple.getT1());
+          assertEquals("rejected", tuple.getT2());
+        })
+        .verifyComplete();
+    assertEquals(State.CLOSED, filter.getState());
+  }
+
+  private static ObjectProvider<MeterRegistry> provider(MeterRegistry meterRegistry) {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerSingleton("meterRegistry", meterRegistry);
+    return beanFactory.getBeanProvider(MeterRegistry.class);
+  }
+
+}
@@ -26,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
@@ -329,6 +330,69 @@ class CategoryControllerTest {
             "ONLY_ONE_PUBLIC_CATEGORY_IS_ALLOWED", entry.getErrorCode()));
   }
 
+  /**
+   * Rename a role in all categories and rename it back.
+   */
+  @WithJwtAuthenticationToken(roles = {ADMIN_ROLE_NAME})
+  @Order(46)
+  @Test
+  void renameAclReference() {
+    webTestClient
+        .put()
+        .uri(builder -> builder
+            .path("/api/categories/f/acl/roles/{name}")
+            .queryParam("newName", "ROLE_MENU_ADMIN")
+            .build(ADMIN_ROLE_NAME))
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(Long.class)
+        .isEqualTo(1L);
+    webTestClient
+        .get()
+        .uri("/api/categories/{id}", testEntry.getId())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectBody(CategorySpec.class)
+        .value((Consumer<CategorySpec>) entry -> assertEquals(
+            List.of("ROLE_MENU_ADMIN"),
+            entry.getAcl().getEntries().get(0).getRoles()));
+    webTestClient
+        .put()
+        .uri(builder -> builder
+            .path("/api/categories/f/acl/roles/{name}")
+            .queryParam("newName", ADMIN_ROLE_NAME)
+            .build("ROLE_MENU_ADMIN"))
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(Long.class)
+        .isEqualTo(1L);
+  }
+
+  /**
+   * Remove an unknown role and use an invalid reference type.
+   */
+  @WithJwtAuthenticationToken(roles = {ADMIN_ROLE_NAME})
+  @Order(47)
+  @Test
+  void removeAclReference() {
+    webTestClient
+        .delete()
+        .uri("/api/categories/f/acl/roles/{name}", "ROLE_UNKNOWN")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(Long.class)
+        .isEqualTo(0L);
+    webTestClient
+        .delete()
+        .uri("/api/categories/f/acl/users/{name}", "stephen")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
   /**
    * Delete category.
    */
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+import io.minio.ObjectStat;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import org.bremersee.exception.ServiceException;
+import org.bremersee.linkman.service.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The image controller test.
+ *
+ * @author Christian Bremer
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"in-memory"})
+class ImageControllerTest {
+
+  private static final String OBJECT_NAME = "1234_card_image_5678";
+
+  private static final String UNKNOWN_OBJECT_NAME = "unknown_card_image";
+
+  private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+  @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ImageService imageService;
+
+  /**
+   * Sets up.
+   */
+  @BeforeEach
+  void setUp() {
+    when(imageService.getImageStat(anyString())).thenReturn(Mono.just(new ObjectStat(
+        "linkman",
+        OBJECT_NAME,
+        ZonedDateTime.now(),
+        CONTENT.length,
+        "abcdef",
+        MediaType.IMAGE_PNG_VALUE)));
+    when(imageService.getImageStat(UNKNOWN_OBJECT_NAME)).thenReturn(Mono.error(
+        ServiceException.notFound("Image", UNKNOWN_OBJECT_NAME)));
+    when(imageService.getImage(eq(OBJECT_NAME), isNull(), isNull()))
+        .thenReturn(content(0, CONTENT.length));
+    when(imageService.getImage(eq(OBJECT_NAME), any(Long.class), any(Long.class)))
+        .thenAnswer(invocation -> content(
+            ((Long) invocation.getArgument(1)).intValue(),
+            ((Long) invocation.getArgument(2)).intValue()));
+  }
+
+  private static Flux<DataBuffer> content(int offset, int length) {
+    return Flux.just(new DefaultDataBufferFactory()
+        .wrap(Arrays.copyOfRange(CONTENT, offset, offset + length)));
+  }
+
+  /**
+   * Gets image.
+   */
+  @Test
+  void getImage() {
+    webTestClient
+        .get()
+        .uri("/api/images/{objectName}", OBJECT_NAME)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.IMAGE_PNG)
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"abcdef\"")
+        .expectHeader().valueEquals(
+            HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable")
+        .expectBody(byte[].class)
+        .value(body -> assertArrayEquals(CONTENT, body));
+  }
+
+  /**
+   * Gets image range.
+   */
+  @Test
+  void getImageRange() {
+    webTestClient
+        .get()
+        .uri("/api/images/{objectName}", OBJECT_NAME)
+        .header(HttpHeaders.RANGE, "bytes=2-4")
+        .exchange()
+        .expectStatus().isEqualTo(206)
+        .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 2-4/10")
+        .expectBody(byte[].class)
+        .value(body -> assertArrayEquals("234".getBytes(StandardCharsets.UTF_8), body));
+  }
+
+  /**
+   * Gets image with unsatisfiable range.
+   */
+  @Test
+  void getImageWithUnsatisfiableRange() {
+    webTestClient
+        .get()
+        .uri("/api/images/{objectName}", OBJECT_NAME)
+        .header(HttpHeaders.RANGE, "bytes=20-30")
+        .exchange()
+        .expectStatus().isEqualTo(416)
+        .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */10");
+  }
+
+  /**
+   * Gets not modified image.
+   */
+  @Test
+  void getNotModifiedImage() {
+    webTestClient
+        .get()
+        .uri("/api/images/{objectName}", OBJECT_NAME)
+        .ifNoneMatch("\"abcdef\"")
+        .exchange()
+        .expectStatus().isNotModified();
+  }
+
+  /**
+   * Gets unknown image.
+   */
+  @Test
+  void getUnknownImage() {
+    webTestClient
+        .get()
+        .uri("/api/images/{objectName}", UNKNOWN_OBJECT_NAME)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+}
@@ -30,15 +30,19 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import org.bremersee.groupman.api.GroupWebfluxControllerApi;
+import org.bremersee.linkman.config.CodecConfiguration;
 import org.bremersee.linkman.model.CategorySpec;
 import org.bremersee.linkman.model.Link;
 import org.bremersee.linkman.model.LinkSpec;
+import org.bremersee.linkman.model.MenuCategory;
 import org.bremersee.linkman.model.MenuEntry;
 import org.bremersee.linkman.model.Translation;
 import org.bremersee.linkman.repository.CategoryEntity;
 import org.bremersee.linkman.repository.CategoryRepository;
 import org.bremersee.linkman.repository.LinkEntity;
 import org.bremersee.linkman.repository.LinkRepository;
+import org.bremersee.linkman.service.CategoryCatalog;
+import org.bremersee.linkman.service.GuestMenu;
 import org.bremersee.security.access.AclBuilder;
 import org.bremersee.security.access.PermissionConstants;
 import org.bremersee.test.security.authentication.WithJwtAuthenticationToken;
@@ -87,6 +91,12 @@ class MenuControllerTest {
   @Autowired
   private ModelMapper modelMapper;
 
+  @Autowired
+  private GuestMenu guestMenu;
+
+  @Autowired
+  private CategoryCatalog categoryCatalog;
+
   @MockBean
   private GroupWebfluxControllerApi groupService;
 
@@ -166,6 +176,9 @@ class MenuControllerTest {
         }))
         .assertNext(entry -> assertEquals(publicTestLinkEntity.getId(), entry.getId()))
         .verifyComplete();
+
+    // The category was saved with the repository, so the catalog must be reloaded.
+    categoryCatalog.reload().block();
   }
 
 
@@ -187,6 +200,63 @@ class MenuControllerTest {
         });
   }
 
+  /**
+   * Gets rendered guest menu.
+   */
+  @Test
+  void getRenderedGuestMenu() {
+    guestMenu.render().block();
+
+    String etag = webTestClient
+        .get()
+        .uri("/api/menu")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.ACCEPT_LANGUAGE, "en")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().exists(HttpHeaders.ETAG)
+        .expectBodyList(MenuEntry.class)
+        .value(list -> {
+          assertThatPublicLinkIsPresent(list);
+          assertThatTestLinkIsNotPresent(list);
+        })
+        .returnResult()
+        .getResponseHeaders()
+        .getETag();
+
+    webTestClient
+        .get()
+        .uri("/api/menu")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.ACCEPT_LANGUAGE, "en")
+        .ifNoneMatch(etag)
+        .exchange()
+        .expectStatus().isNotModified();
+  }
+
+  /**
+   * Gets public links for guests as newline delimited json.
+   */
+  @Test
+  void getPublicLinksForGuestsAsNdjson() {
+    webTestClient
+        .get()
+        .uri("/api/menu")
+        .accept(CodecConfiguration.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(CodecConfiguration.APPLICATION_NDJSON)
+        .expectBody(String.class)
+        .value(body -> {
+          String[] lines = body.trim().split("\n");
+          assertTrue(lines.length > 0);
+          for (String line : lines) {
+            assertTrue(line.startsWith("{") && line.endsWith("}"));
+          }
+          assertTrue(body.contains(publicTestLink.getId()));
+        });
+  }
+
   private void assertThatPublicLinkIsPresent(List<MenuEntry> list) {
     assertEquals(1L, list.stream().filter(MenuEntry::isPub).count());
     Optional<MenuEntry> optional = list.stream()
@@ -321,6 +391,117 @@ class MenuControllerTest {
         });
   }
 
+  /**
+   * Gets not modified menu entries.
+   */
+  @WithJwtAuthenticationToken(
+      preferredUsername = "stephen",
+      roles = {USER_ROLE_NAME})
+  @Test
+  void getNotModifiedMenuEntries() {
+    when(groupService.getMembershipIds()).thenReturn(Mono.just(Collections.emptySet()));
+
+    String etag = webTestClient
+        .get()
+        .uri("/api/menu")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().exists(HttpHeaders.ETAG)
+        .returnResult(MenuEntry.class)
+        .getResponseHeaders()
+        .getETag();
+    assertNotNull(etag);
+
+    webTestClient
+        .get()
+        .uri("/api/menu")
+        .accept(MediaType.APPLICATION_JSON)
+        .ifNoneMatch(etag)
+        .exchange()
+        .expectStatus().isNotModified();
+
+    webTestClient
+        .get()
+        .uri("/api/menu")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.ACCEPT_LANGUAGE, "de")
+        .ifNoneMatch(etag)
+        .exchange()
+        .expectStatus().isOk();
+  }
+
+  /**
+   * Gets menu categories and links for stephen.
+   */
+  @WithJwtAuthenticationToken(
+      preferredUsername = "stephen",
+      roles = {USER_ROLE_NAME})
+  @Test
+  void getMenuCategoriesAndLinksForStephen() {
+    when(groupService.getMembershipIds()).thenReturn(Mono.just(Collections.emptySet()));
+
+    webTestClient
+        .get()
+        .uri("/api/menu/categories")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.ACCEPT_LANGUAGE, "de")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(MenuCategory.class)
+        .value(list -> {
+          assertEquals(1L, list.stream().filter(MenuCategory::isPub).count());
+          Optional<MenuCategory> category = list.stream()
+              .filter(c -> categoryId.equals(c.getId()))
+              .findFirst();
+          assertTrue(category.isPresent());
+          assertEquals("Verwaltung", category.get().getCategory());
+          assertEquals(1L, category.get().getLinkCount());
+        });
+
+    webTestClient
+        .get()
+        .uri("/api/menu/categories/{id}/links", categoryId)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.ACCEPT_LANGUAGE, "de")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Link.class)
+        .value(list -> {
+          assertEquals(1, list.size());
+          assertEquals(testLink.getId(), list.get(0).getId());
+          assertEquals("Verwaltungsseite", list.get(0).getText());
+        });
+  }
+
+  /**
+   * Gets menu links for leopold.
+   */
+  @WithJwtAuthenticationToken(
+      preferredUsername = "leopold",
+      roles = {USER_ROLE_NAME})
+  @Test
+  void getMenuLinksForLeopold() {
+    when(groupService.getMembershipIds()).thenReturn(Mono.just(Collections.emptySet()));
+
+    webTestClient
+        .get()
+        .uri("/api/menu/categories")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(MenuCategory.class)
+        .value(list -> assertTrue(list.stream()
+            .noneMatch(c -> categoryId.equals(c.getId()))));
+
+    webTestClient
+        .get()
+        .uri("/api/menu/categories/{id}/links", categoryId)
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
   private void assertThatTestLinkIsPresent(List<MenuEntry> list) {
     assertTrue(list.stream()
         .anyMatch(menuEntry -> menuEntry.getLinks().stream()
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 
@@ -61,7 +62,7 @@ class GroupRepresentationTest {
   @Test
   void getName() {
     String value = UUID.randomUUID().toString();
-    GroupRepresentation expected = new GroupRepresentation(null, value);
+    GroupRepresentation expected = new GroupRepresentation(null, value, null, null);
     assertEquals(value, expected.getName());
 
     value = UUID.randomUUID().toString();
@@ -72,4 +73,24 @@ class GroupRepresentationTest {
     assertEquals(expected, GroupRepresentation.builder().name(value).build());
     assertTrue(expected.toString().contains(value));
   }
-}
\ No newline at end of file
+
+  /**
+   * Gets path and sub groups.
+   */
+  @Test
+  void getPathAndSubGroups() {
+    GroupRepresentation subGroup = GroupRepresentation.builder()
+        .name("child")
+        .path("/parent/child")
+        .build();
+    GroupRepresentation expected = GroupRepresentation.builder()
+        .name("parent")
+        .path("/parent")
+        .subGroups(List.of(subGroup))
+        .build();
+    assertEquals("/parent", expected.getPath());
+    assertEquals(List.of(subGroup), expected.getSubGroups());
+    assertTrue(subGroup.getSubGroups().isEmpty());
+    assertEquals(expected, expected.toBuilder().build());
+  }
+}
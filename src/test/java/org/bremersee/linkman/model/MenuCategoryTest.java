@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The menu category test.
+ *
+ * @author Christian Bremer
+ */
+class MenuCategoryTest {
+
+  /**
+   * Gets id.
+   */
+  @Test
+  void getId() {
+    MenuCategory model = new MenuCategory();
+    String value = UUID.randomUUID().toString();
+    model.setId(value);
+    assertEquals(value, model.getId());
+
+    assertEquals(model, model);
+    assertEquals(model, MenuCategory.builder().id(value).build());
+    assertNotEquals(model, null);
+    assertNotEquals(model, new Object());
+
+    assertTrue(model.toBuilder().build().toString().contains(value));
+  }
+
+  /**
+   * Gets category.
+   */
+  @Test
+  void getCategory() {
+    MenuCategory model = new MenuCategory();
+    String value = UUID.randomUUID().toString();
+    model.setCategory(value);
+    assertEquals(value, model.getCategory());
+    assertEquals(model, MenuCategory.builder().category(value).build());
+    assertTrue(model.toBuilder().build().toString().contains(value));
+  }
+
+  /**
+   * Is pub.
+   */
+  @Test
+  void isPub() {
+    MenuCategory model = new MenuCategory();
+    model.setPub(true);
+    assertTrue(model.isPub());
+    assertEquals(model, MenuCategory.builder().pub(true).build());
+  }
+
+  /**
+   * Gets link count.
+   */
+  @Test
+  void getLinkCount() {
+    MenuCategory model = new MenuCategory();
+    model.setLinkCount(42L);
+    assertEquals(42L, model.getLinkCount());
+    assertEquals(model, MenuCategory.builder().linkCount(42L).build());
+    assertTrue(model.toBuilder().build().toString().contains("42"));
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The menu delta test.
+ *
+ * @author Christian Bremer
+ */
+class MenuDeltaTest {
+
+  /**
+   * Gets version.
+   */
+  @Test
+  void getVersion() {
+    MenuDelta model = new MenuDelta();
+    model.setVersion(1234L);
+    assertEquals(1234L, model.getVersion());
+
+    assertEquals(model, model);
+    assertEquals(model, MenuDelta.builder().version(1234L).build());
+    assertNotEquals(model, null);
+    assertNotEquals(model, new Object());
+
+    assertTrue(model.toBuilder().build().toString().contains("1234"));
+  }
+
+  /**
+   * Gets category ids.
+   */
+  @Test
+  void getCategoryIds() {
+    List<String> value = Collections.singletonList(UUID.randomUUID().toString());
+    MenuDelta model = new MenuDelta();
+    model.setCategoryIds(value);
+    assertEquals(value, model.getCategoryIds());
+    assertEquals(model, MenuDelta.builder().categoryIds(value).build());
+    assertTrue(model.toBuilder().build().toString().contains(value.get(0)));
+  }
+
+  /**
+   * Gets entries.
+   */
+  @Test
+  void getEntries() {
+    String categoryId = UUID.randomUUID().toString();
+    List<MenuEntry> value = Collections.singletonList(MenuEntry.builder()
+        .categoryId(categoryId)
+        .build());
+    MenuDelta model = new MenuDelta();
+    model.setEntries(value);
+    assertEquals(value, model.getEntries());
+    assertEquals(model, MenuDelta.builder().entries(value).build());
+    assertTrue(model.toBuilder().build().toString().contains(categoryId));
+  }
+
+  /**
+   * Gets removed category ids.
+   */
+  @Test
+  void getRemovedCategoryIds() {
+    List<String> value = Collections.singletonList(UUID.randomUUID().toString());
+    MenuDelta model = new MenuDelta();
+    model.setRemovedCategoryIds(value);
+    assertEquals(value, model.getRemovedCategoryIds());
+    assertEquals(model, MenuDelta.builder().removedCategoryIds(value).build());
+    assertTrue(model.toBuilder().build().toString().contains(value.get(0)));
+  }
+
+}
@@ -32,6 +32,31 @@ import org.junit.jupiter.api.Test;
  */
 class MenuEntryTest {
 
+  /**
+   * Gets category id.
+   */
+  @Test
+  void getCategoryId() {
+    MenuEntry model = new MenuEntry();
+    String value = UUID.randomUUID().toString();
+    model.setCategoryId(value);
+    assertEquals(value, model.getCategoryId());
+    assertEquals(model, MenuEntry.builder().categoryId(value).build());
+    assertTrue(model.toBuilder().build().toString().contains(value));
+  }
+
+  /**
+   * Gets version.
+   */
+  @Test
+  void getVersion() {
+    MenuEntry model = new MenuEntry();
+    model.setVersion(1234L);
+    assertEquals(1234L, model.getVersion());
+    assertEquals(model, MenuEntry.builder().version(1234L).build());
+    assertTrue(model.toBuilder().build().toString().contains("1234"));
+  }
+
   /**
    * Gets category.
    */
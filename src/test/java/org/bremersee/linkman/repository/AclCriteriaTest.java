@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.bremersee.groupman.api.GroupWebfluxControllerApi;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The acl criteria test checks the query plans of the readable criteria.
+ *
+ * @author Christian Bremer
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.security.oauth2.resourceserver.jwt.jwk-set-uri=http://localhost/jwk"
+})
+@ActiveProfiles({"default"})
+@TestInstance(Lifecycle.PER_CLASS)
+class AclCriteriaTest {
+
+  private static final Set<String> ROLES = names("ROLE_TEST_", 40);
+
+  private static final Set<String> GROUPS = names("group", 80);
+
+  @Autowired
+  private ReactiveMongoTemplate mongoTemplate;
+
+  @MockBean
+  private GroupWebfluxControllerApi groupService;
+
+  /**
+   * Sets up.
+   */
+  @BeforeAll
+  void setUp() {
+    final List<CategoryEntity> categories = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      AceEntity read = new AceEntity();
+      read.setUsers(Set.of("user" + i));
+      read.setRoles(Set.of("ROLE_TEST_" + (i % 50)));
+      read.setGroups(Set.of("group" + (i % 100)));
+      AclEntity acl = new AclEntity();
+      acl.setOwner("owner" + i);
+      acl.setRead(read);
+      CategoryEntity category = new CategoryEntity();
+      category.setName("Acl test " + i);
+      category.setOrder(1000 + i);
+      category.setAcl(acl);
+      categories.add(category);
+    }
+    mongoTemplate.insertAll(categories).blockLast();
+  }
+
+  /**
+   * Tear down.
+   */
+  @AfterAll
+  void tearDown() {
+    mongoTemplate.remove(
+        Query.query(Criteria.where("name").regex("^Acl test ")),
+        CategoryEntity.class)
+        .block();
+  }
+
+  /**
+   * Readable criteria have one branch per acl field.
+   */
+  @Test
+  void readableHasOneBranchPerField() {
+    Document query = Query.query(AclCriteria.readable("anna", ROLES, GROUPS)).getQueryObject();
+    List<?> branches = query.getList("$or", Object.class);
+    assertTrue(branches.size() <= AclEntity.INDEXED_PATHS.size());
+  }
+
+  /**
+   * Readable categories are found with indexes.
+   */
+  @Test
+  void readableCategoriesUseIndexes() {
+    assertIndexOnly(CategoryEntity.class);
+  }
+
+  /**
+   * Readable menu projections are found with indexes.
+   */
+  @Test
+  void readableMenuProjectionsUseIndexes() {
+    assertIndexOnly(MenuProjectionEntity.class);
+  }
+
+  private void assertIndexOnly(Class<?> entityClass) {
+    Document filter = Query.query(AclCriteria.readable("anna", ROLES, GROUPS)).getQueryObject();
+    Document explain = mongoTemplate.executeCommand(new Document()
+        .append("explain", new Document()
+            .append("find", mongoTemplate.getCollectionName(entityClass))
+            .append("filter", filter))
+        .append("verbosity", "queryPlanner"))
+        .block();
+    assertTrue(explain != null && explain.containsKey("queryPlanner"));
+    Set<String> stages = new LinkedHashSet<>();
+    collectStages(explain.get("queryPlanner", Document.class).get("winningPlan"), stages);
+    assertFalse(stages.contains("COLLSCAN"), "Winning plan " + stages + " contains COLLSCAN.");
+    assertTrue(stages.contains("IXSCAN"), "Winning plan " + stages + " has no IXSCAN.");
+  }
+
+  private static void collectStages(Object plan, Set<String> stages) {
+    if (plan instanceof Document) {
+      Document document = (Document) plan;
+      if (document.containsKey("stage")) {
+        stages.add(document.getString("stage"));
+      }
+      document.values().forEach(value -> collectStages(value, stages));
+    } else if (plan instanceof Collection) {
+      ((Collection<?>) plan).forEach(value -> collectStages(value, stages));
+    }
+  }
+
+  private static Set<String> names(String prefix, int size) {
+    return IntStream.range(0, size)
+        .mapToObj(i -> prefix + i)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+}
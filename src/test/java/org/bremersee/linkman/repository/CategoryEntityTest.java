@@ -23,8 +23,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import org.bremersee.common.model.TwoLetterLanguageCode;
 import org.bremersee.linkman.model.Translation;
 import org.junit.jupiter.api.Test;
 
@@ -121,4 +123,25 @@ class CategoryEntityTest {
     assertEquals(1, expected.getOrder());
   }
 
-}
\ No newline at end of file
+  /**
+   * Gets sort key.
+   */
+  @Test
+  void getSortKey() {
+    CategoryEntity a = new CategoryEntity();
+    a.setName("Doctors");
+    a.setTranslations(Collections.singleton(new Translation("de", "\u00c4rzte")));
+    CategoryEntity b = new CategoryEntity();
+    b.setName("Railway");
+    b.setTranslations(Collections.singleton(new Translation("de", "Bahn")));
+    assertTrue(a.compareTo(b, Locale.GERMAN) < 0);
+
+    a.updateSortKeys(List.of(TwoLetterLanguageCode.DE, TwoLetterLanguageCode.EN));
+    b.updateSortKeys(List.of(TwoLetterLanguageCode.DE, TwoLetterLanguageCode.EN));
+    assertEquals(Set.of("de", "en"), a.getSortKeys().keySet());
+    assertEquals(SortKeys.create("\u00c4rzte", Locale.GERMAN), a.getSortKey(Locale.GERMAN));
+    assertTrue(a.compareTo(b, Locale.GERMAN) < 0);
+    assertTrue(a.compareTo(b, Locale.ENGLISH) < 0);
+  }
+
+}
@@ -6,9 +6,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
+import org.bremersee.common.model.TwoLetterLanguageCode;
 import org.bremersee.linkman.model.Translation;
 import org.junit.jupiter.api.Test;
 
@@ -172,4 +174,25 @@ class LinkEntityTest {
     assertEquals(0, a.compareTo(b));
   }
 
-}
\ No newline at end of file
+  /**
+   * Gets sort key.
+   */
+  @Test
+  void getSortKey() {
+    LinkEntity a = new LinkEntity();
+    a.setText("Doctors");
+    a.setTextTranslations(Collections.singleton(new Translation("de", "\u00c4rzte")));
+    LinkEntity b = new LinkEntity();
+    b.setText("railway");
+    b.setTextTranslations(Collections.singleton(new Translation("de", "bahn")));
+    assertTrue(a.compareTo(b, Locale.GERMAN) < 0);
+
+    a.updateSortKeys(List.of(TwoLetterLanguageCode.DE, TwoLetterLanguageCode.EN));
+    b.updateSortKeys(List.of(TwoLetterLanguageCode.DE, TwoLetterLanguageCode.EN));
+    assertEquals(Set.of("de", "en"), a.getSortKeys().keySet());
+    assertEquals(SortKeys.create("\u00c4rzte", Locale.GERMAN), a.getSortKey(Locale.GERMAN));
+    assertTrue(a.compareTo(b, Locale.GERMAN) < 0);
+    assertTrue(a.compareTo(b, Locale.ENGLISH) < 0);
+  }
+
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.repository.AclEntity;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The category catalog test.
+ *
+ * @author Christian Bremer
+ */
+class CategoryCatalogTest {
+
+  private static final List<TwoLetterLanguageCode> LANGUAGES = List.of(TwoLetterLanguageCode.EN);
+
+  /**
+   * Find readable categories.
+   */
+  @Test
+  void findReadableCategories() {
+    CategoryCatalog.Snapshot snapshot = new CategoryCatalog.Snapshot(1L, List.of(
+        category("guest", 0, "Guest", true, null, null, null, null),
+        category("user", 1, "User", false, "anna", null, null, null),
+        category("role", 2, "Role", false, null, "ROLE_ADMIN", null, null),
+        category("group", 3, "Group", false, null, null, "developers", null),
+        category("owner", 4, "Owner", false, null, null, null, "anna"),
+        category("nobody", 5, "Nobody", false, null, null, null, null)),
+        LANGUAGES);
+
+    assertEquals(
+        List.of("guest"),
+        ids(snapshot.findReadableCategories(null, null, null, null)));
+    assertEquals(
+        List.of("guest", "user", "owner"),
+        ids(snapshot.findReadableCategories("anna", Set.of(), Set.of(), null)));
+    assertEquals(
+        List.of("guest", "role"),
+        ids(snapshot.findReadableCategories("paul", Set.of("ROLE_ADMIN"), Set.of(), null)));
+    assertEquals(
+        List.of("guest", "group"),
+        ids(snapshot.findReadableCategories("paul", Set.of(), Set.of("developers"), null)));
+    assertEquals(
+        List.of("guest", "user", "role", "group", "owner"),
+        ids(snapshot.findReadableCategories(
+            "anna", Set.of("ROLE_ADMIN"), Set.of("developers"), TwoLetterLanguageCode.EN)));
+  }
+
+  /**
+   * Categories with the same order are sorted by the sort keys of the language.
+   */
+  @Test
+  void findReadableCategoriesSortedByLanguage() {
+    CategoryCatalog.Snapshot snapshot = new CategoryCatalog.Snapshot(1L, List.of(
+        category("b", 0, "b", true, null, null, null, null),
+        category("A", 0, "A", true, null, null, null, null),
+        category("c", 1, "c", true, null, null, null, null)),
+        LANGUAGES);
+
+    assertEquals(
+        List.of("A", "b", "c"),
+        ids(snapshot.findReadableCategories(null, null, null, TwoLetterLanguageCode.EN)));
+    assertEquals(
+        List.of("b", "A", "c"),
+        ids(snapshot.findReadableCategories(null, null, null, null)));
+  }
+
+  /**
+   * Changed, added and removed categories are found.
+   */
+  @Test
+  void diff() {
+    CategoryEntity changed = category("changed", 1, "Changed", false, "anna", null, null, null);
+    CategoryCatalog.Snapshot snapshot = new CategoryCatalog.Snapshot(1L, List.of(
+        category("same", 0, "Same", true, null, null, null, null),
+        category("changed", 1, "Changed", false, "anna", null, null, null),
+        category("removed", 2, "Removed", false, null, null, null, null)),
+        LANGUAGES);
+    changed.getAcl().getRead().setUsers(Set.of("paul"));
+    CategoryCatalog.Snapshot other = new CategoryCatalog.Snapshot(2L, List.of(
+        category("same", 0, "Same", true, null, null, null, null),
+        changed,
+        category("added", 3, "Added", false, null, null, null, null)),
+        LANGUAGES);
+
+    assertEquals(Set.of("changed", "removed", "added"), snapshot.diff(other));
+    assertEquals(Set.of(), snapshot.diff(snapshot));
+  }
+
+  /**
+   * The repository is used until the catalog is loaded, then writes are written through.
+   */
+  @Test
+  void reloadAndWriteThrough() {
+    CategoryEntity guest = category("guest", 0, "Guest", true, null, null, null, null);
+    CategoryEntity user = category("user", 1, "User", false, "anna", null, null, null);
+    CategoryRepository repository = mock(CategoryRepository.class);
+    when(repository.findReadableCategories(any(), anySet(), anySet(), isNull()))
+        .thenReturn(Flux.just(user));
+    when(repository.findAll(any(Sort.class)))
+        .thenReturn(Flux.just(guest, user));
+    CategoryCatalog catalog = new CategoryCatalog(
+        new LinkmanProperties(),
+        repository,
+        mock(ContentVersion.class),
+        objectProvider());
+
+    StepVerifier.create(catalog.findReadableCategories("anna", Set.of(), Set.of(), null))
+        .expectNext(user)
+        .verifyComplete();
+
+    StepVerifier.create(catalog.reload()).verifyComplete();
+    StepVerifier.create(catalog.findReadableCategories("anna", Set.of(), Set.of(), null))
+        .expectNext(guest, user)
+        .verifyComplete();
+    StepVerifier.create(catalog.countPublicCategories())
+        .expectNext(1L)
+        .verifyComplete();
+    StepVerifier.create(catalog.findPublicCategory())
+        .expectNext(guest)
+        .verifyComplete();
+
+    CategoryEntity added = category("added", 0, "Added", false, "anna", null, null, null);
+    catalog.put(added);
+    catalog.remove("guest");
+    StepVerifier.create(catalog.findReadableCategories("anna", Set.of(), Set.of(), null))
+        .expectNext(added, user)
+        .verifyComplete();
+    StepVerifier.create(catalog.validateCategoryIds(List.of("added", "guest", "user")))
+        .expectNext(Set.of("added", "user"))
+        .verifyComplete();
+    StepVerifier.create(catalog.countPublicCategories())
+        .expectNext(0L)
+        .verifyComplete();
+  }
+
+  /**
+   * Changes, that were announced by another instance, do not get a new content version.
+   */
+  @Test
+  void checkConsistency() {
+    CategoryEntity guest = category("guest", 0, "Guest", true, null, null, null, null);
+    CategoryEntity user = category("user", 1, "User", false, "anna", null, null, null);
+    CategoryEntity changedGuest = category("guest", 0, "Guests", true, null, null, null, null);
+    CategoryEntity changedUser = category("user", 1, "Users", false, "anna", null, null, null);
+    CategoryRepository repository = mock(CategoryRepository.class);
+    when(repository.findAll(any(Sort.class)))
+        .thenReturn(
+            Flux.just(guest, user),
+            Flux.just(guest, changedUser),
+            Flux.just(guest, changedUser),
+            Flux.just(changedGuest, changedUser));
+    ContentVersion contentVersion = mock(ContentVersion.class);
+    CategoryCatalog catalog = new CategoryCatalog(
+        new LinkmanProperties(),
+        repository,
+        contentVersion,
+        objectProvider());
+    when(contentVersion.current()).thenAnswer(invocation -> {
+      catalog.onContentChanged(new ContentChangedEvent(2L, Set.of("user"), true));
+      return Mono.just(2L);
+    }).thenReturn(Mono.just(2L));
+    when(contentVersion.increment(anySet())).thenReturn(Mono.just(3L));
+    StepVerifier.create(catalog.reload()).verifyComplete();
+
+    // The change of the other instance was announced.
+    StepVerifier.create(catalog.checkConsistency())
+        .expectNext(Set.of("user"))
+        .verifyComplete();
+    verify(contentVersion).publish(Set.of("user"));
+    verify(contentVersion, never()).increment(anySet());
+
+    // The change of the guest category was not announced.
+    StepVerifier.create(catalog.checkConsistency())
+        .expectNext(Set.of("guest"))
+        .verifyComplete();
+    verify(contentVersion).increment(Set.of("guest"));
+  }
+
+  /**
+   * The principal signature does not depend on the order of roles and groups.
+   */
+  @Test
+  void signature() {
+    assertEquals(
+        CategoryCatalog.signature(List.of("ROLE_USER", "ROLE_ADMIN"), List.of("b", "a")),
+        CategoryCatalog.signature(Set.of("ROLE_ADMIN", "ROLE_USER"), List.of("a", "b")));
+    assertNotEquals(
+        CategoryCatalog.signature(List.of("a"), List.of()),
+        CategoryCatalog.signature(List.of(), List.of("a")));
+    assertEquals(
+        CategoryCatalog.signature(null, null),
+        CategoryCatalog.signature(Set.of(), Set.of()));
+  }
+
+  /**
+   * The categories, that are readable by roles and groups, are not modified by the user part.
+   */
+  @Test
+  void findReadableDoesNotModifySharedBitSet() {
+    CategoryCatalog.Snapshot snapshot = new CategoryCatalog.Snapshot(1L, List.of(
+        category("guest", 0, "Guest", true, null, null, null, null),
+        category("user", 1, "User", false, "anna", null, null, null),
+        category("role", 2, "Role", false, null, "ROLE_ADMIN", null, null)),
+        LANGUAGES);
+    BitSet shared = snapshot.findReadable(Set.of("ROLE_ADMIN"), Set.of());
+
+    assertEquals(
+        List.of("guest", "user", "role"),
+        ids(snapshot.findReadableCategories("anna", shared, null)));
+    assertEquals(
+        List.of("guest", "role"),
+        ids(snapshot.findReadableCategories("paul", shared, null)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectProvider<MeterRegistry> objectProvider() {
+    return mock(ObjectProvider.class);
+  }
+
+  private static List<String> ids(List<CategoryEntity> categories) {
+    return categories.stream().map(CategoryEntity::getId).collect(Collectors.toList());
+  }
+
+  private static CategoryEntity category(
+      String id,
+      int order,
+      String name,
+      boolean guest,
+      String user,
+      String role,
+      String group,
+      String owner) {
+
+    AclEntity acl = new AclEntity();
+    acl.setOwner(owner);
+    acl.getRead().setGuest(guest);
+    acl.getRead().setUsers(user != null ? Set.of(user) : Collections.emptySet());
+    acl.getRead().setRoles(role != null ? Set.of(role) : Collections.emptySet());
+    acl.getRead().setGroups(group != null ? Set.of(group) : Collections.emptySet());
+    CategoryEntity category = new CategoryEntity();
+    category.setId(id);
+    category.setOrder(order);
+    category.setName(name);
+    category.setAcl(acl);
+    category.updateSortKeys(LANGUAGES);
+    return category;
+  }
+
+}
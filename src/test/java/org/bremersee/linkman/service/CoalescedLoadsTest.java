@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The coalesced loads test.
+ *
+ * @author Christian Bremer
+ */
+class CoalescedLoadsTest {
+
+  /**
+   * Concurrent loads share one call of the loader; a completed load is not kept.
+   */
+  @Test
+  void coalesce() {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicReference<Mono<Integer>> loading = new AtomicReference<>();
+
+    StepVerifier.create(Mono.zip(
+        CoalescedLoads.coalesce(loading, () -> load(calls)),
+        CoalescedLoads.coalesce(loading, () -> load(calls))))
+        .assertNext(tuple -> {
+          assertEquals(1, tuple.getT1());
+          assertEquals(1, tuple.getT2());
+        })
+        .verifyComplete();
+    assertNull(loading.get());
+
+    StepVerifier.create(CoalescedLoads.coalesce(loading, () -> load(calls)))
+        .expectNext(2)
+        .verifyComplete();
+  }
+
+  /**
+   * Concurrent loads of the same key share one call of the loader; a failed load is not kept.
+   */
+  @Test
+  void coalesceWithKey() {
+    AtomicInteger calls = new AtomicInteger();
+    ConcurrentMap<String, Mono<Integer>> loading = new ConcurrentHashMap<>();
+
+    StepVerifier.create(Mono.zip(
+        CoalescedLoads.coalesce(loading, "anna", key -> load(calls)),
+        CoalescedLoads.coalesce(loading, "anna", key -> load(calls)),
+        CoalescedLoads.coalesce(loading, "bob", key -> load(calls))))
+        .assertNext(tuple -> {
+          assertEquals(tuple.getT1(), tuple.getT2());
+          assertEquals(3, tuple.getT1() + tuple.getT3());
+        })
+        .verifyComplete();
+    assertTrue(loading.isEmpty());
+
+    StepVerifier.create(CoalescedLoads.coalesce(loading, "anna",
+        key -> Mono.<Integer>error(new IllegalStateException("failed"))))
+        .verifyError(IllegalStateException.class);
+    assertTrue(loading.isEmpty());
+  }
+
+  private static Mono<Integer> load(AtomicInteger calls) {
+    return Mono.fromSupplier(calls::incrementAndGet).delayElement(Duration.ofMillis(50L));
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.bremersee.linkman.model.SelectOption;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The group hierarchy test.
+ *
+ * @author Christian Bremer
+ */
+class GroupHierarchyTest {
+
+  private static final GroupHierarchy hierarchy = new GroupHierarchy(List.of(
+      new SelectOption("developer", "developer"),
+      new SelectOption("frontend", "developer/frontend"),
+      new SelectOption("staff", "staff"),
+      new SelectOption("support", "staff/support"),
+      new SelectOption("sales", "sales"),
+      new SelectOption("support", "sales/support")));
+
+  /**
+   * Groups with a unique name are expanded by path and by name.
+   */
+  @Test
+  void expandUniqueName() {
+    assertEquals(
+        Set.of("developer/frontend", "frontend", "developer"),
+        hierarchy.expand(List.of("frontend")));
+    assertEquals(
+        Set.of("developer/frontend", "frontend", "developer"),
+        hierarchy.expand(List.of("/developer/frontend")));
+    assertEquals(
+        Set.of("developer", "unknown"),
+        hierarchy.expand(List.of("developer", "unknown")));
+  }
+
+  /**
+   * Groups with the same name in different parents only get the ancestors of their own path
+   * and are never represented by their ambiguous name.
+   */
+  @Test
+  void expandSameNameInDifferentParents() {
+    assertEquals(
+        Set.of("staff/support", "staff"),
+        hierarchy.expand(List.of("staff/support")));
+    assertEquals(
+        Set.of("sales/support", "sales"),
+        hierarchy.expand(List.of("/sales/support")));
+    // An ambiguous name is not expanded at all.
+    assertEquals(Set.of("support"), hierarchy.expand(List.of("support")));
+  }
+
+  /**
+   * Groups are qualified by path and unique name without their ancestors.
+   */
+  @Test
+  void qualify() {
+    assertEquals(
+        Set.of("developer/frontend", "frontend", "staff/support", "unknown"),
+        hierarchy.qualify(List.of("/developer/frontend", "/staff/support", "unknown")));
+  }
+
+  /**
+   * Groups exist by path and by name.
+   */
+  @Test
+  void contains() {
+    assertTrue(hierarchy.contains("sales/support"));
+    assertTrue(hierarchy.contains("/staff/support"));
+    assertTrue(hierarchy.contains("support"));
+    assertFalse(hierarchy.contains("marketing/support"));
+    assertFalse(hierarchy.contains(null));
+  }
+
+}
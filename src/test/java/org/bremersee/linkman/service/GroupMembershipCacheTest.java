@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The group membership cache test.
+ *
+ * @author Christian Bremer
+ */
+class GroupMembershipCacheTest {
+
+  /**
+   * Concurrent loads are coalesced.
+   */
+  @Test
+  void getCoalescesConcurrentLoads() {
+    GroupMembershipCache cache = new GroupMembershipCache(
+        new LinkmanProperties(),
+        objectProvider());
+    AtomicInteger calls = new AtomicInteger();
+    Mono<Set<String>> slowLoad = Mono.fromCallable(() -> {
+      calls.incrementAndGet();
+      return Set.of("developer");
+    }).delayElement(Duration.ofMillis(100L));
+
+    StepVerifier.create(Mono.zip(
+        cache.get("anna", () -> slowLoad),
+        cache.get("anna", () -> slowLoad)))
+        .assertNext(tuple -> {
+          assertEquals(Set.of("developer"), tuple.getT1());
+          assertEquals(Set.of("developer"), tuple.getT2());
+        })
+        .verifyComplete();
+    assertEquals(1, calls.get());
+
+    StepVerifier.create(cache.get("anna", () -> slowLoad))
+        .assertNext(groupIds -> assertEquals(Set.of("developer"), groupIds))
+        .verifyComplete();
+    assertEquals(1, calls.get());
+  }
+
+  /**
+   * Stale entries are returned, when the reload is slow or fails.
+   */
+  @Test
+  void getReturnsStaleEntries() {
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.getMembershipCache().setTimeToLive(Duration.ZERO);
+    properties.getMembershipCache().setStaleTimeout(Duration.ofMillis(50L));
+    GroupMembershipCache cache = new GroupMembershipCache(properties, objectProvider());
+
+    StepVerifier.create(cache.get("anna", () -> Mono.just(Set.of("developer"))))
+        .assertNext(groupIds -> assertEquals(Set.of("developer"), groupIds))
+        .verifyComplete();
+
+    StepVerifier.create(cache.get("anna", () -> Mono.error(new IllegalStateException())))
+        .assertNext(groupIds -> assertEquals(Set.of("developer"), groupIds))
+        .verifyComplete();
+
+    StepVerifier.create(cache.get("anna", () -> Mono.just(Set.of("admin"))
+        .delayElement(Duration.ofSeconds(1L))))
+        .assertNext(groupIds -> assertEquals(Set.of("developer"), groupIds))
+        .verifyComplete();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectProvider<MeterRegistry> objectProvider() {
+    return mock(ObjectProvider.class);
+  }
+
+}
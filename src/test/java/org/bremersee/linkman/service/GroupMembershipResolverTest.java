@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bremersee.groupman.api.GroupWebfluxControllerApi;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.config.LinkmanProperties.MembershipSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The group membership resolver test.
+ *
+ * @author Christian Bremer
+ */
+class GroupMembershipResolverTest {
+
+  private static final JwtAuthenticationToken authentication = new JwtAuthenticationToken(
+      Jwt.withTokenValue("token")
+          .header("alg", "none")
+          .subject("anna")
+          .claim("groups", List.of("/developer", "/staff/support"))
+          .claim("realm_access", Map.of("groups", List.of("admin")))
+          .build());
+
+  /**
+   * Groups are read from the claim path.
+   */
+  @Test
+  void getClaimedGroups() {
+    Map<String, Object> attributes = authentication.getTokenAttributes();
+    assertEquals(
+        Set.of("developer", "staff/support"),
+        GroupMembershipResolver.getClaimedGroups(attributes, "groups"));
+    assertEquals(
+        Set.of("admin"),
+        GroupMembershipResolver.getClaimedGroups(attributes, "realm_access", "groups"));
+    assertEquals(
+        Set.of("a", "b"),
+        GroupMembershipResolver.getClaimedGroups(Map.of("groups", "a, b"), "groups"));
+    assertTrue(GroupMembershipResolver.getClaimedGroups(attributes, "sub", "groups").isEmpty());
+    assertTrue(GroupMembershipResolver.getClaimedGroups(attributes, "unknown").isEmpty());
+  }
+
+  /**
+   * The jwt source does not call the group service.
+   */
+  @Test
+  void getMembershipIdsFromJwt() {
+    GroupWebfluxControllerApi groupService = mock(GroupWebfluxControllerApi.class);
+    GroupMembershipResolver resolver = resolver(MembershipSource.JWT, groupService);
+
+    StepVerifier.create(resolver.getMembershipIds()
+        .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+        .assertNext(groupIds -> assertEquals(Set.of("developer", "staff/support"), groupIds))
+        .verifyComplete();
+    verify(groupService, never()).getMembershipIds();
+  }
+
+  /**
+   * Both sources are merged and a failing group service falls back to the claimed groups.
+   */
+  @Test
+  void getMembershipIdsFromBoth() {
+    GroupWebfluxControllerApi groupService = mock(GroupWebfluxControllerApi.class);
+    when(groupService.getMembershipIds()).thenReturn(Mono.just(Set.of("friends")));
+    GroupMembershipResolver resolver = resolver(MembershipSource.BOTH, groupService);
+
+    StepVerifier.create(resolver.getMembershipIds()
+        .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+        .assertNext(groupIds -> assertEquals(
+            Set.of("developer", "staff/support", "friends"),
+            groupIds))
+        .verifyComplete();
+
+    GroupWebfluxControllerApi failingGroupService = mock(GroupWebfluxControllerApi.class);
+    when(failingGroupService.getMembershipIds())
+        .thenReturn(Mono.error(new IllegalStateException("Service unavailable")));
+    GroupMembershipResolver failingResolver = resolver(
+        MembershipSource.BOTH,
+        failingGroupService);
+
+    StepVerifier.create(failingResolver.getMembershipIds()
+        .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+        .assertNext(groupIds -> assertEquals(Set.of("developer", "staff/support"), groupIds))
+        .verifyComplete();
+  }
+
+  private static GroupMembershipResolver resolver(
+      MembershipSource source,
+      GroupWebfluxControllerApi groupService) {
+
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.setMembershipSource(source);
+    properties.getMembershipCache().setEnabled(false);
+    return new GroupMembershipResolver(
+        properties,
+        new GroupServiceImpl(properties, new KeycloakClientMock()),
+        new GroupMembershipCache(properties, objectProvider(null)),
+        objectProvider(groupService));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> ObjectProvider<T> objectProvider(T object) {
+    ObjectProvider<T> provider = mock(ObjectProvider.class);
+    when(provider.getIfAvailable()).thenReturn(object);
+    return provider;
+  }
+
+}
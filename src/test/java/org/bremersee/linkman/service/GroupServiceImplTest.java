@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.CountRepresentation;
+import org.bremersee.linkman.model.GroupRepresentation;
+import org.bremersee.linkman.model.RoleRepresentation;
+import org.bremersee.linkman.model.SelectOption;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The group service implementation test.
+ *
+ * @author Christian Bremer
+ */
+class GroupServiceImplTest {
+
+  /**
+   * Sub groups are flattened into path qualified options.
+   */
+  @Test
+  void getAllGroups() {
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.getExcludedGroups().add("Company Admins");
+    GroupServiceImpl groupService = new GroupServiceImpl(properties, new KeycloakClientMock());
+
+    StepVerifier.create(groupService.getAllGroups())
+        .expectNext(new SelectOption("developer", "developer"))
+        .expectNext(new SelectOption("frontend", "developer/frontend"))
+        .verifyComplete();
+  }
+
+  /**
+   * Groups are expanded with their ancestors.
+   */
+  @Test
+  void expandGroups() {
+    GroupServiceImpl groupService = new GroupServiceImpl(
+        new LinkmanProperties(),
+        new KeycloakClientMock());
+
+    StepVerifier.create(groupService.expandGroups(List.of("frontend", "unknown")))
+        .assertNext(groups -> assertEquals(
+            Set.of("developer/frontend", "frontend", "developer", "unknown"),
+            groups))
+        .verifyComplete();
+    StepVerifier.create(groupService.expandGroups(List.of("developer")))
+        .assertNext(groups -> assertEquals(Set.of("developer"), groups))
+        .verifyComplete();
+  }
+
+  /**
+   * All pages are fetched in their order with bounded concurrency.
+   */
+  @Test
+  void getAllGroupsPaged() {
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.setKeycloakPageSize(100);
+    properties.setKeycloakPageConcurrency(3);
+    PagedKeycloakClient keycloakClient = new PagedKeycloakClient(1050);
+    GroupServiceImpl groupService = new GroupServiceImpl(properties, keycloakClient);
+
+    StepVerifier.create(groupService.getAllGroups().map(SelectOption::getValue).collectList())
+        .assertNext(names -> assertEquals(keycloakClient.names, names))
+        .verifyComplete();
+    assertEquals(11, keycloakClient.pages.get());
+    assertTrue(keycloakClient.maxActive.get() <= 3);
+  }
+
+  private static class PagedKeycloakClient implements KeycloakClientApi {
+
+    private final List<String> names;
+
+    private final AtomicInteger pages = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private PagedKeycloakClient(int size) {
+      this.names = IntStream.range(0, size)
+          .mapToObj(i -> String.format("group-%05d", i))
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    public Flux<RoleRepresentation> getAllRoles(String realm) {
+      return Flux.empty();
+    }
+
+    @Override
+    public Flux<GroupRepresentation> getGroups(String realm, int first, int max) {
+      return Flux.defer(() -> {
+        pages.incrementAndGet();
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        return Flux.fromIterable(names.subList(first, Math.min(first + max, names.size())))
+            .map(name -> GroupRepresentation.builder().name(name).path("/" + name).build())
+            .delaySubscription(Duration.ofMillis(10L))
+            .doOnTerminate(active::decrementAndGet);
+      });
+    }
+
+    @Override
+    public Mono<CountRepresentation> getGroupCount(String realm, boolean top) {
+      return Mono.just(new CountRepresentation(names.size()));
+    }
+  }
+
+}
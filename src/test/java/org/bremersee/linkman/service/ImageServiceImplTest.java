@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.minio.ErrorCode;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.bremersee.data.minio.MinioOperations;
+import org.bremersee.exception.ServiceException;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.repository.LinkRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The image service implementation test.
+ *
+ * @author Christian Bremer
+ */
+class ImageServiceImplTest {
+
+  /**
+   * Objects, that are not referenced by a link, are not found.
+   */
+  @Test
+  void getImageStatOfUnreferencedObject() {
+    MinioOperations minioOperations = mock(MinioOperations.class);
+    LinkRepository linkRepository = mock(LinkRepository.class);
+    when(linkRepository.existsByImage("secret")).thenReturn(Mono.just(false));
+    ImageServiceImpl imageService = new ImageServiceImpl(
+        new LinkmanProperties(),
+        minioOperations,
+        linkRepository);
+
+    StepVerifier.create(imageService.getImageStat("secret"))
+        .expectError(ServiceException.class)
+        .verify();
+    verify(minioOperations, never()).statObject(any(StatObjectArgs.class));
+  }
+
+  /**
+   * A missing object of the object store is not found.
+   */
+  @Test
+  void getImageStatOfMissingObject() {
+    MinioOperations minioOperations = mock(MinioOperations.class);
+    when(minioOperations.statObject(any(StatObjectArgs.class)))
+        .thenThrow(new IllegalStateException(notFound(ErrorCode.NO_SUCH_KEY)));
+    LinkRepository linkRepository = mock(LinkRepository.class);
+    when(linkRepository.existsByImage("missing")).thenReturn(Mono.just(true));
+    ImageServiceImpl imageService = new ImageServiceImpl(
+        new LinkmanProperties(),
+        minioOperations,
+        linkRepository);
+
+    StepVerifier.create(imageService.getImageStat("missing"))
+        .expectError(ServiceException.class)
+        .verify();
+  }
+
+  /**
+   * Only the not found errors of the object store are detected.
+   */
+  @Test
+  void isNotFound() {
+    assertTrue(ImageServiceImpl.isNotFound(notFound(ErrorCode.NO_SUCH_KEY)));
+    assertTrue(ImageServiceImpl.isNotFound(
+        new IllegalStateException(notFound(ErrorCode.NO_SUCH_OBJECT))));
+    assertFalse(ImageServiceImpl.isNotFound(notFound(ErrorCode.ACCESS_DENIED)));
+    assertFalse(ImageServiceImpl.isNotFound(new IllegalStateException()));
+  }
+
+  private static ErrorResponseException notFound(ErrorCode errorCode) {
+    return new ErrorResponseException(
+        new ErrorResponse(errorCode, "linkman", "missing", "/linkman/missing", "1", "2"),
+        new Response.Builder()
+            .request(new Request.Builder().url("http://localhost/linkman/missing").build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(404)
+            .message("Not Found")
+            .build());
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bremersee.common.model.TwoLetterLanguageCode;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.linkman.model.Translation;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.linkman.repository.CategoryLinksEntity;
+import org.bremersee.linkman.repository.LinkEntity;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The menu assembler test.
+ *
+ * @author Christian Bremer
+ */
+class MenuAssemblerTest {
+
+  private static final List<TwoLetterLanguageCode> LANGUAGES = List.of(
+      TwoLetterLanguageCode.EN,
+      TwoLetterLanguageCode.DE);
+
+  /**
+   * The maximum number of bytes, that may be allocated per menu entry with five links. The
+   * entry, the links, their list and the iterators of the translations need about 650 bytes.
+   */
+  private static final long ALLOCATION_BUDGET_PER_ENTRY = 1024L;
+
+  /**
+   * To menu entry.
+   */
+  @Test
+  void toMenuEntry() {
+    MenuAssembler assembler = new MenuAssembler(
+        TwoLetterLanguageCode.DE,
+        Map.of("c1", 42L),
+        imageUrlResolver());
+    CategoryLinksEntity entity = category("c1", 5);
+    MenuEntry menuEntry = assembler.toMenuEntry(entity);
+    assertEquals("c1", menuEntry.getCategoryId());
+    assertEquals(42L, menuEntry.getVersion());
+    assertEquals("Kategorie c1", menuEntry.getCategory());
+    assertEquals(5, menuEntry.getLinks().size());
+    assertEquals("Link 0", menuEntry.getLinks().get(0).getText());
+    assertEquals("Link 4", menuEntry.getLinks().get(4).getText());
+    assertEquals("Beschreibung 0", menuEntry.getLinks().get(0).getDescription());
+
+    assertNull(assembler.toMenuEntry(category("c2", 0)));
+  }
+
+  /**
+   * Allocation budget per menu entry.
+   */
+  @Test
+  void allocationBudget() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported()
+        && threadBean.isThreadAllocatedMemoryEnabled());
+
+    final int size = 1000;
+    final List<CategoryLinksEntity> entities = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      entities.add(category("c" + i, 5));
+    }
+    final MenuAssembler assembler = new MenuAssembler(
+        TwoLetterLanguageCode.DE,
+        Collections.emptyMap(),
+        imageUrlResolver());
+    final MenuEntry[] menuEntries = new MenuEntry[size];
+
+    long bytesPerEntry = Long.MAX_VALUE;
+    for (int run = 0; run < 10; run++) {
+      final long threadId = Thread.currentThread().getId();
+      final long before = threadBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < size; i++) {
+        menuEntries[i] = assembler.toMenuEntry(entities.get(i));
+      }
+      final long after = threadBean.getThreadAllocatedBytes(threadId);
+      bytesPerEntry = Math.min(bytesPerEntry, (after - before) / size);
+    }
+    assertEquals(5, menuEntries[size - 1].getLinks().size());
+    assertTrue(
+        bytesPerEntry <= ALLOCATION_BUDGET_PER_ENTRY,
+        "Allocated " + bytesPerEntry + " bytes per menu entry, budget is "
+            + ALLOCATION_BUDGET_PER_ENTRY + " bytes.");
+  }
+
+  private static ImageUrlResolver imageUrlResolver() {
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.setImageUrlStrategy(LinkmanProperties.ImageUrlStrategy.STABLE);
+    return new ImageUrlResolver(properties, null);
+  }
+
+  private static CategoryLinksEntity category(String id, int linkSize) {
+    CategoryEntity category = new CategoryEntity();
+    category.setId(id);
+    category.setName("Category " + id);
+    category.setTranslations(Set.of(new Translation("de", "Kategorie " + id)));
+    category.updateSortKeys(LANGUAGES);
+    List<LinkEntity> links = new ArrayList<>(linkSize);
+    for (int i = linkSize - 1; i >= 0; i--) {
+      LinkEntity link = new LinkEntity();
+      link.setId(id + "-" + i);
+      link.setCategoryIds(Set.of(id));
+      link.setHref("http://example.org/" + i);
+      link.setText("Link " + i);
+      link.setTextTranslations(Set.of(new Translation("de", "Link " + i)));
+      link.setDescription("Description " + i);
+      link.setDescriptionTranslations(Set.of(new Translation("de", "Beschreibung " + i)));
+      link.updateSortKeys(LANGUAGES);
+      links.add(link);
+    }
+    return new CategoryLinksEntity(category, links);
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.MenuEntry;
+import org.bremersee.linkman.repository.CategoryVersionEntity;
+import org.bremersee.linkman.repository.CategoryVersionRepository;
+import org.bremersee.security.core.UserContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The menu cache test.
+ *
+ * @author Christian Bremer
+ */
+class MenuCacheTest {
+
+  /**
+   * Create key.
+   */
+  @Test
+  void createKey() {
+    UserContext a = userContext("anna", Set.of("ROLE_USER", "ROLE_ADMIN"), Set.of("a", "b"));
+    UserContext b = userContext("anna", Set.of("ROLE_ADMIN", "ROLE_USER"), Set.of("b", "a"));
+    assertEquals(
+        MenuCache.createKey(a, Locale.GERMANY),
+        MenuCache.createKey(b, Locale.GERMAN));
+    assertNotEquals(
+        MenuCache.createKey(a, Locale.GERMAN),
+        MenuCache.createKey(a, Locale.ENGLISH));
+
+    UserContext c = userContext("anna", Set.of("ROLE_USER"), Set.of("ROLE_ADMIN", "a", "b"));
+    assertNotEquals(
+        MenuCache.createKey(a, Locale.GERMAN),
+        MenuCache.createKey(c, Locale.GERMAN));
+  }
+
+  /**
+   * Get.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  void get() {
+    CategoryVersionRepository categoryVersionRepository = mock(CategoryVersionRepository.class);
+    when(categoryVersionRepository.updateVersions(any(), anyLong())).thenReturn(Mono.empty());
+    when(categoryVersionRepository.nextContentVersion(anyLong())).thenReturn(Mono.just(1L));
+    when(categoryVersionRepository.commitContentVersion(anyLong())).thenReturn(Mono.empty());
+    when(categoryVersionRepository.findContentVersion()).thenReturn(Mono.empty());
+    LinkmanProperties properties = new LinkmanProperties();
+    ContentVersion contentVersion = new ContentVersion(
+        properties,
+        categoryVersionRepository,
+        mock(ApplicationEventPublisher.class));
+    MenuCache menuCache = new MenuCache(
+        properties,
+        contentVersion,
+        presignedUrlCache(),
+        mock(ObjectProvider.class));
+    UserContext userContext = userContext("anna", Set.of("ROLE_USER"), Set.of());
+    MenuEntry menuEntry = MenuEntry.builder().category("Test").links(List.of()).build();
+    AtomicInteger calls = new AtomicInteger();
+
+    StepVerifier.create(menuCache.get(userContext, Locale.GERMAN, () -> {
+      calls.incrementAndGet();
+      return Flux.just(menuEntry);
+    }))
+        .assertNext(entry -> assertEquals(menuEntry, entry))
+        .verifyComplete();
+    StepVerifier.create(menuCache.get(userContext, Locale.GERMAN, () -> {
+      calls.incrementAndGet();
+      return Flux.just(menuEntry);
+    }))
+        .assertNext(entry -> assertEquals(menuEntry, entry))
+        .verifyComplete();
+    assertEquals(1, calls.get());
+
+    contentVersion.increment(Collections.emptySet()).block();
+    StepVerifier.create(menuCache.get(userContext, Locale.GERMAN, () -> {
+      calls.incrementAndGet();
+      return Flux.just(menuEntry);
+    }))
+        .assertNext(entry -> assertEquals(menuEntry, entry))
+        .verifyComplete();
+    assertEquals(2, calls.get());
+  }
+
+  /**
+   * Get with change of another instance.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  void getWithRemoteChange() {
+    CategoryVersionRepository categoryVersionRepository = mock(CategoryVersionRepository.class);
+    when(categoryVersionRepository.findContentVersion())
+        .thenReturn(Mono.just(1L), Mono.just(1L), Mono.just(2L));
+    CategoryVersionEntity categoryVersion = new CategoryVersionEntity();
+    categoryVersion.setId("a");
+    categoryVersion.setVersion(2L);
+    when(categoryVersionRepository.findByVersionGreaterThan(anyLong()))
+        .thenReturn(Flux.just(categoryVersion));
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.getMenu().setVersionCheckInterval(Duration.ZERO);
+    List<ContentChangedEvent> events = new ArrayList<>();
+    AtomicReference<MenuCache> menuCache = new AtomicReference<>();
+    ContentVersion contentVersion = new ContentVersion(
+        properties,
+        categoryVersionRepository,
+        event -> {
+          events.add((ContentChangedEvent) event);
+          menuCache.get().onContentChanged((ContentChangedEvent) event);
+        });
+    menuCache.set(new MenuCache(
+        properties,
+        contentVersion,
+        presignedUrlCache(),
+        mock(ObjectProvider.class)));
+    UserContext userContext = userContext("anna", Set.of("ROLE_USER"), Set.of());
+    MenuEntry menuEntry = MenuEntry.builder().category("Test").links(List.of()).build();
+    AtomicInteger calls = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      StepVerifier.create(menuCache.get().get(userContext, Locale.GERMAN, () -> {
+        calls.incrementAndGet();
+        return Flux.just(menuEntry);
+      }))
+          .assertNext(entry -> assertEquals(menuEntry, entry))
+          .verifyComplete();
+    }
+    // The first call loads the menu, the second is served from the cache and the third sees
+    // the version of the other instance.
+    assertEquals(2, calls.get());
+    assertEquals(2, events.size());
+    assertTrue(events.get(1).isRemote());
+    assertEquals(2L, events.get(1).getVersion());
+    assertEquals(Set.of("a"), events.get(1).getCategoryIds());
+  }
+
+  /**
+   * Get time to live.
+   */
+  @Test
+  void getTimeToLive() {
+    assertEquals(
+        Duration.ofHours(1L),
+        MenuCache.getTimeToLive(Duration.ofHours(1L), null));
+    assertEquals(
+        Duration.ofHours(1L),
+        MenuCache.getTimeToLive(Duration.ofHours(1L), Duration.ofDays(1L)));
+    assertEquals(
+        Duration.ofMinutes(15L),
+        MenuCache.getTimeToLive(Duration.ofHours(1L), Duration.ofMinutes(30L)));
+  }
+
+  private static PresignedUrlCache presignedUrlCache() {
+    PresignedUrlCache presignedUrlCache = mock(PresignedUrlCache.class);
+    when(presignedUrlCache.getMinimumUrlValidity()).thenReturn(Duration.ofDays(1L));
+    return presignedUrlCache;
+  }
+
+  private static UserContext userContext(String userId, Set<String> roles, Set<String> groups) {
+    UserContext userContext = mock(UserContext.class);
+    when(userContext.getUserId()).thenReturn(userId);
+    when(userContext.getRoles()).thenReturn(roles);
+    when(userContext.getGroups()).thenReturn(groups);
+    return userContext;
+  }
+
+}
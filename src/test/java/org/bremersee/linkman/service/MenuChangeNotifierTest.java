@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.repository.CategoryEntity;
+import org.bremersee.security.core.UserContext;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * The menu change notifier test.
+ *
+ * @author Christian Bremer
+ */
+class MenuChangeNotifierTest {
+
+  /**
+   * Get menu changes.
+   */
+  @Test
+  void getMenuChanges() {
+    MenuChangeNotifier notifier = new MenuChangeNotifier(
+        new LinkmanProperties(),
+        mock(CategoryCatalog.class));
+    StepVerifier.create(notifier.getMenuChanges().take(2))
+        .then(() -> notifier.onContentChanged(new ContentChangedEvent(1L, Set.of("a"))))
+        .assertNext(change -> {
+          assertEquals(1L, change.getVersion());
+          assertEquals(List.of("a"), change.getCategoryIds());
+        })
+        .then(() -> notifier.onContentChanged(new ContentChangedEvent(2L, Set.of())))
+        .assertNext(change -> assertEquals(2L, change.getVersion()))
+        .verifyComplete();
+  }
+
+  /**
+   * Slow subscribers lose the oldest changes.
+   */
+  @Test
+  void getMenuChangesDropsOldest() {
+    LinkmanProperties properties = new LinkmanProperties();
+    properties.getMenu().setChangeBufferSize(2);
+    MenuChangeNotifier notifier = new MenuChangeNotifier(properties, mock(CategoryCatalog.class));
+    StepVerifier.create(notifier.getMenuChanges(), 0L)
+        .then(() -> {
+          for (long version = 1L; version <= 5L; version++) {
+            notifier.onContentChanged(new ContentChangedEvent(version, Set.of()));
+          }
+        })
+        .thenRequest(2L)
+        .assertNext(change -> assertEquals(4L, change.getVersion()))
+        .assertNext(change -> assertEquals(5L, change.getVersion()))
+        .thenCancel()
+        .verify();
+  }
+
+  /**
+   * Users only get the ids of the categories, they can read.
+   */
+  @Test
+  void getMenuChangesOfUser() {
+    UserContext userContext = userContext("anna");
+    CategoryCatalog categoryCatalog = mock(CategoryCatalog.class);
+    when(categoryCatalog.findReadableCategories(any(), any(), any(), any()))
+        .thenAnswer(invocation -> Flux.just(category("a"), category("c")));
+    MenuChangeNotifier notifier = new MenuChangeNotifier(
+        new LinkmanProperties(),
+        categoryCatalog);
+    StepVerifier.create(notifier.getMenuChanges(userContext).take(2))
+        .then(() -> notifier.onContentChanged(new ContentChangedEvent(1L, Set.of("a", "b"))))
+        .assertNext(change -> {
+          assertEquals(1L, change.getVersion());
+          assertEquals(List.of("a"), change.getCategoryIds());
+        })
+        .then(() -> notifier.onContentChanged(new ContentChangedEvent(2L, Set.of("b"))))
+        .assertNext(change -> {
+          assertEquals(2L, change.getVersion());
+          assertTrue(change.getCategoryIds().isEmpty());
+        })
+        .verifyComplete();
+  }
+
+  /**
+   * Guests get the changes without any ids.
+   */
+  @Test
+  void getMenuChangesOfGuest() {
+    CategoryCatalog categoryCatalog = mock(CategoryCatalog.class);
+    MenuChangeNotifier notifier = new MenuChangeNotifier(
+        new LinkmanProperties(),
+        categoryCatalog);
+    StepVerifier.create(notifier.getMenuChanges(userContext(null)).take(1))
+        .then(() -> notifier.onContentChanged(new ContentChangedEvent(1L, Set.of("public"))))
+        .assertNext(change -> {
+          assertEquals(1L, change.getVersion());
+          assertTrue(change.getCategoryIds().isEmpty());
+        })
+        .verifyComplete();
+    verifyNoInteractions(categoryCatalog);
+  }
+
+  private static CategoryEntity category(String id) {
+    CategoryEntity category = new CategoryEntity();
+    category.setId(id);
+    return category;
+  }
+
+  private static UserContext userContext(String userId) {
+    UserContext userContext = mock(UserContext.class);
+    when(userContext.getUserId()).thenReturn(userId);
+    when(userContext.getRoles()).thenReturn(Set.of());
+    when(userContext.getGroups()).thenReturn(Set.of());
+    return userContext;
+  }
+
+}
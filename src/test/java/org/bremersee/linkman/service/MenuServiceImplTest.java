@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.bremersee.linkman.model.MenuDelta;
+import org.bremersee.linkman.model.MenuEntry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The menu service impl test.
+ *
+ * @author Christian Bremer
+ */
+class MenuServiceImplTest {
+
+  private static List<MenuEntry> entries(String... categoryIds) {
+    return Arrays.stream(categoryIds)
+        .map(id -> MenuEntry.builder().categoryId(id).category(id).build())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * To menu delta with changed categories.
+   */
+  @Test
+  void toMenuDeltaWithChangedCategories() {
+    MenuDelta delta = MenuServiceImpl.toMenuDelta(
+        7L,
+        entries("a", "b"),
+        new HashSet<>(Arrays.asList("b", "c")),
+        null);
+    assertEquals(7L, delta.getVersion());
+    assertEquals(Arrays.asList("a", "b"), delta.getCategoryIds());
+    assertEquals(entries("b"), delta.getEntries());
+    assertEquals(Collections.singletonList("c"), delta.getRemovedCategoryIds());
+  }
+
+  /**
+   * To menu delta with newly readable category.
+   */
+  @Test
+  void toMenuDeltaWithNewlyReadableCategory() {
+    // The user was added to a group, so category 'b' became readable without being changed.
+    MenuDelta delta = MenuServiceImpl.toMenuDelta(
+        7L,
+        entries("a", "b"),
+        Collections.emptySet(),
+        Collections.singletonList("a"));
+    assertEquals(entries("b"), delta.getEntries());
+    assertTrue(delta.getRemovedCategoryIds().isEmpty());
+  }
+
+  /**
+   * To menu delta with no longer readable category.
+   */
+  @Test
+  void toMenuDeltaWithNoLongerReadableCategory() {
+    // The user was removed from a group, so category 'b' is no longer readable.
+    MenuDelta delta = MenuServiceImpl.toMenuDelta(
+        7L,
+        entries("a"),
+        Collections.emptySet(),
+        Arrays.asList("a", "b"));
+    assertEquals(Collections.singletonList("a"), delta.getCategoryIds());
+    assertTrue(delta.getEntries().isEmpty());
+    assertEquals(Collections.singletonList("b"), delta.getRemovedCategoryIds());
+  }
+
+}
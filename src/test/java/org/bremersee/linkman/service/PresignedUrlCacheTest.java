@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.minio.http.Method;
+import org.bremersee.data.minio.MinioObjectId;
+import org.bremersee.data.minio.MinioRepository;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * The presigned url cache test.
+ *
+ * @author Christian Bremer
+ */
+class PresignedUrlCacheTest {
+
+  /**
+   * Get url.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  void getUrl() {
+    MinioRepository imageRepository = mock(MinioRepository.class);
+    when(imageRepository.getPresignedObjectUrl(any(MinioObjectId.class), any(Method.class)))
+        .thenReturn("http://somewhere/1", "http://somewhere/2");
+    PresignedUrlCache cache = new PresignedUrlCache(
+        new LinkmanProperties(),
+        imageRepository,
+        mock(ObjectProvider.class));
+
+    assertNull(cache.getUrl(null));
+    assertNull(cache.getUrl(""));
+    assertEquals("http://somewhere/1", cache.getUrl("image"));
+    assertEquals("http://somewhere/1", cache.getUrl("image"));
+    verify(imageRepository, times(1))
+        .getPresignedObjectUrl(any(MinioObjectId.class), any(Method.class));
+
+    cache.evict("image");
+    assertEquals("http://somewhere/2", cache.getUrl("image"));
+    verify(imageRepository, times(2))
+        .getPresignedObjectUrl(any(MinioObjectId.class), any(Method.class));
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.linkman.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bremersee.linkman.config.LinkmanProperties;
+import org.bremersee.linkman.model.SelectOption;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The select option cache test.
+ *
+ * @author Christian Bremer
+ */
+class SelectOptionCacheTest {
+
+  /**
+   * Concurrent loads are coalesced and cached options are returned.
+   */
+  @Test
+  void getAll() {
+    AtomicInteger calls = new AtomicInteger();
+    SelectOptionCache cache = new SelectOptionCache(
+        "roles",
+        new LinkmanProperties.OptionCache(),
+        () -> Flux.defer(() -> {
+          calls.incrementAndGet();
+          return Flux.just(option("ROLE_USER"), option("ROLE_ADMIN"));
+        }).delayElements(Duration.ofMillis(50L)));
+
+    StepVerifier.create(Mono.zip(
+        cache.getAll().collectList(),
+        cache.getAll().collectList()))
+        .assertNext(tuple -> {
+          assertEquals(2, tuple.getT1().size());
+          assertEquals(2, tuple.getT2().size());
+        })
+        .verifyComplete();
+    StepVerifier.create(cache.getAll().map(SelectOption::getValue))
+        .expectNext("ROLE_USER", "ROLE_ADMIN")
+        .verifyComplete();
+    assertEquals(1, calls.get());
+  }
+
+  /**
+   * Only existing values are returned.
+   */
+  @Test
+  void filterExisting() {
+    SelectOptionCache cache = new SelectOptionCache(
+        "groups",
+        new LinkmanProperties.OptionCache(),
+        () -> Flux.just(option("developers"), option("admins")));
+
+    StepVerifier.create(cache.filterExisting(List.of("unknown", "admins", "developers")))
+        .expectNext(List.of("admins", "developers"))
+        .verifyComplete();
+    StepVerifier.create(cache.filterExisting(null))
+        .expectNext(List.of())
+        .verifyComplete();
+  }
+
+  /**
+   * Expired options are returned, when the reload fails.
+   */
+  @Test
+  void getAllReturnsStaleOptions() {
+    LinkmanProperties.OptionCache properties = new LinkmanProperties.OptionCache();
+    properties.setRefreshAfter(Duration.ZERO);
+    properties.setExpireAfter(Duration.ZERO);
+    AtomicInteger calls = new AtomicInteger();
+    SelectOptionCache cache = new SelectOptionCache(
+        "groups",
+        properties,
+        () -> calls.incrementAndGet() == 1
+            ? Flux.just(option("developers"))
+            : Flux.error(new IllegalStateException("Keycloak is not available.")));
+
+    StepVerifier.create(cache.getAll().map(SelectOption::getValue))
+        .expectNext("developers")
+        .verifyComplete();
+    StepVerifier.create(cache.getAll().map(SelectOption::getValue))
+        .expectNext("developers")
+        .verifyComplete();
+    assertEquals(2, calls.get());
+  }
+
+  private static SelectOption option(String value) {
+    return new SelectOption(value, value);
+  }
+
+}